@@ -0,0 +1,50 @@
+import java.awt.Color;
+import java.util.HashMap;
+
+// One RGB colour at every alpha a fade or pulse needs, so drawing with a changing
+// alpha reuses Color objects instead of allocating one per draw.
+// Alpha is quantized to LEVELS steps (about 4/255 apart, which is invisible). Each
+// level's Color is created the first time it is drawn and kept from then on.
+// Ramps are shared per RGB value: get one when an entity is created and
+// keep it, rather than looking it up every frame.
+class AlphaRamp {
+    static final int LEVELS = 64;
+    // Ramps kept for sharing; past this the cache starts over (ramps in use stay valid)
+    private static final int MAX_CACHED_RAMPS = 1024;
+    private static final HashMap<Integer, AlphaRamp> cache = new HashMap<>();
+
+    private final int rgb;
+    private final Color[] colors = new Color[LEVELS];
+
+    private AlphaRamp(int rgb) {
+        this.rgb = rgb;
+    }
+
+    // The shared ramp for base's RGB; base's own alpha is ignored
+    static AlphaRamp of(Color base) {
+        return of(base.getRGB() & 0xFFFFFF);
+    }
+
+    static synchronized AlphaRamp of(int rgb) {
+        AlphaRamp ramp = cache.get(rgb);
+        if (ramp == null) {
+            if (cache.size() >= MAX_CACHED_RAMPS) cache.clear();
+            ramp = new AlphaRamp(rgb);
+            cache.put(rgb, ramp);
+        }
+        return ramp;
+    }
+
+    // This colour at alpha (0-255, clamped), rounded to the nearest level
+    Color at(int alpha) {
+        alpha = Math.max(0, Math.min(255, alpha));
+        int level = (alpha * (LEVELS - 1) + 127) / 255;
+        Color color = colors[level];
+        if (color == null) {
+            // Racing callers may both create it; either Color is correct
+            color = new Color(((level * 255 / (LEVELS - 1)) << 24) | rgb, true);
+            colors[level] = color;
+        }
+        return color;
+    }
+}
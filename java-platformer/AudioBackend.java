@@ -0,0 +1,20 @@
+import javax.sound.sampled.AudioFormat;
+
+// Destination for the mixer's output blocks.
+// LineAudioBackend plays through the sound card in real time;
+// WavFileAudioBackend writes to a file as fast as the mixer can render.
+interface AudioBackend {
+    // Prepares the backend for blocks in the given format. Returns false if it is unavailable.
+    boolean open(AudioFormat format, int bufferBytes);
+
+    // Writes length bytes. Real-time backends block until the device has room.
+    void write(byte[] data, int length);
+
+    // Bytes written but not yet played; 0 for backends that do not play in real time
+    int getQueuedBytes();
+
+    // Whether write() blocks until the device has room, which paces the mixer thread
+    boolean isRealtime();
+
+    void close();
+}
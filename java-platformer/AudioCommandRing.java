@@ -0,0 +1,85 @@
+import java.util.concurrent.atomic.AtomicLong;
+
+// Fixed-size single-producer/single-consumer queue of sound commands.
+// Commands are stored as primitives in preallocated arrays, so publishing one
+// from the game thread neither allocates nor takes a lock. The producer only
+// writes the tail and the consumer only writes the head; each publishes its
+// index with an ordered store after touching the slot.
+class AudioCommandRing {
+    // Receives drained commands on the consumer thread
+    interface Handler {
+        void onCommand(int soundId, int chordIndex, int durationMs, float gain, long triggerNanos);
+    }
+
+    static final int DEFAULT_CAPACITY = 256;
+
+    private final int mask;
+    private final int[] soundIds;
+    private final int[] chordIndices;
+    private final int[] durationsMs;
+    private final float[] gains;
+    private final long[] triggerNanos; // System.nanoTime() when the game asked for the sound
+
+    private final AtomicLong head = new AtomicLong(); // Next slot to read; consumer writes
+    private final AtomicLong tail = new AtomicLong(); // Next slot to write; producer writes
+    private long cachedHead = 0;  // Producer's last view of head
+    private final AtomicLong droppedCount = new AtomicLong(); // Producer writes; any thread reads
+
+    // capacity is rounded up to a power of two
+    public AudioCommandRing(int capacity) {
+        int size = 2;
+        while (size < capacity) size <<= 1;
+        mask = size - 1;
+        soundIds = new int[size];
+        chordIndices = new int[size];
+        durationsMs = new int[size];
+        gains = new float[size];
+        triggerNanos = new long[size];
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+
+    // Producer side. Returns false, and counts a drop, if the ring is full.
+    public boolean offer(int soundId, int chordIndex, int durationMs, float gain, long triggerTime) {
+        long t = tail.get();
+        if (t - cachedHead > mask) {
+            cachedHead = head.get();
+            if (t - cachedHead > mask) {
+                droppedCount.lazySet(droppedCount.get() + 1);
+                return false;
+            }
+        }
+        int slot = (int) t & mask;
+        soundIds[slot] = soundId;
+        chordIndices[slot] = chordIndex;
+        durationsMs[slot] = durationMs;
+        gains[slot] = gain;
+        triggerNanos[slot] = triggerTime;
+        tail.lazySet(t + 1);
+        return true;
+    }
+
+    // Consumer side. Hands every command published so far to handler and
+    // returns how many there were.
+    public int drain(Handler handler) {
+        long h = head.get();
+        long t = tail.get();
+        for (long i = h; i < t; i++) {
+            int slot = (int) i & mask;
+            handler.onCommand(soundIds[slot], chordIndices[slot], durationsMs[slot], gains[slot], triggerNanos[slot]);
+        }
+        head.lazySet(t);
+        return (int) (t - h);
+    }
+
+    public int size() {
+        return (int) (tail.get() - head.get());
+    }
+
+    // Commands rejected because the consumer fell behind. Safe to read from any thread.
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+}
@@ -0,0 +1,95 @@
+// Watches how much of each mix block's real-time budget the mixer spends
+// synthesizing, and trades chord quality for time when it gets close:
+//   TIER_FULL       - two detuned oscillators per note at the full sample rate
+//   TIER_NO_DETUNE  - the detune oscillator is dropped, halving oscillator work
+//   TIER_HALF_RATE  - one oscillator per note rendered at half rate and
+//                     interpolated up, from tables band-limited for that rate
+//                     (so upper harmonics are dropped too)
+// Steps down as soon as the smoothed load crosses STEP_DOWN_LOAD and back up
+// only after the load has stayed under STEP_UP_LOAD for a while.
+// Updated on the mixer thread; the metrics may be read from any thread.
+class AudioGovernor {
+    static final int TIER_FULL = 0;
+    static final int TIER_NO_DETUNE = 1;
+    static final int TIER_HALF_RATE = 2;
+    static final int NUM_TIERS = 3;
+
+    static final double STEP_DOWN_LOAD = 0.60;  // Fraction of the block's duration
+    static final double STEP_UP_LOAD = 0.25;
+    private static final double SMOOTHING = 0.1; // Weight of the newest block
+    private static final int STEP_UP_BLOCKS = 86; // ~1 s of headroom before raising quality
+    private static final int HOLD_BLOCKS = 22;    // ~0.25 s between steps down
+
+    private final double blockNanos = AudioMixer.BLOCK_FRAMES / AudioMixer.SAMPLE_RATE * 1e9;
+
+    private volatile boolean enabled = true;
+    private volatile int tier = TIER_FULL;
+    private volatile double load = 0.0;     // Smoothed fraction of the budget used
+    private volatile double peakLoad = 0.0; // Highest single-block load seen
+    private volatile long tierChanges = 0;
+    private int quietBlocks = 0;
+    private int holdBlocks = 0;
+
+    // Called once per block with the time spent synthesizing and mixing it
+    void recordBlock(long mixNanos) {
+        double blockLoad = mixNanos / blockNanos;
+        load += (blockLoad - load) * SMOOTHING;
+        if (blockLoad > peakLoad) peakLoad = blockLoad;
+        if (!enabled) return;
+
+        if (holdBlocks > 0) holdBlocks--;
+        if (load > STEP_DOWN_LOAD && tier < NUM_TIERS - 1 && holdBlocks == 0) {
+            setTierInternal(tier + 1);
+            holdBlocks = HOLD_BLOCKS;
+            quietBlocks = 0;
+        } else if (load < STEP_UP_LOAD && tier > TIER_FULL) {
+            if (++quietBlocks >= STEP_UP_BLOCKS) {
+                setTierInternal(tier - 1);
+                quietBlocks = 0;
+            }
+        } else {
+            quietBlocks = 0;
+        }
+    }
+
+    private void setTierInternal(int newTier) {
+        tier = newTier;
+        tierChanges++;
+    }
+
+    // When disabled the tier stays where it is (e.g. TIER_FULL for offline renders)
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // Forces a tier; with the governor enabled it moves on from there
+    public void setTier(int tier) {
+        setTierInternal(Math.max(TIER_FULL, Math.min(NUM_TIERS - 1, tier)));
+    }
+
+    public int getTier() {
+        return tier;
+    }
+
+    // Smoothed fraction of the real-time budget used per block (1.0 = no headroom)
+    public double getLoad() {
+        return load;
+    }
+
+    public double getPeakLoad() {
+        return peakLoad;
+    }
+
+    public long getTierChanges() {
+        return tierChanges;
+    }
+
+    public String getStats() {
+        return String.format("Audio governor: tier %d, load %.1f%% (peak %.1f%%), %d tier changes",
+                tier, load * 100, peakLoad * 100, tierChanges);
+    }
+}
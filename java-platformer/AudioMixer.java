@@ -0,0 +1,274 @@
+import java.util.Arrays;
+import java.util.concurrent.locks.LockSupport;
+
+import javax.sound.sampled.AudioFormat;
+
+// Software mixer that owns a single, always-open output (an AudioBackend).
+// Sounds are triggered from the game thread and synthesized straight into fixed-size
+// blocks on a dedicated audio thread, so triggering a sound never opens a line
+// and is heard within one block instead of after the whole sound is rendered.
+// Without a thread (startOffline) the caller drives renderBlock itself, e.g. to
+// render a recorded session to a file.
+class AudioMixer implements Runnable {
+    public static final float SAMPLE_RATE = 44100;
+    public static final int BLOCK_FRAMES = 512;           // ~11.6 ms per mix block
+    static final int LINE_BUFFER_BLOCKS = 4;              // Blocks queued in the driver
+
+    // Output is 16-bit so several 8-bit voices can be summed without wrapping
+    static final AudioFormat OUTPUT_FORMAT = new AudioFormat(SAMPLE_RATE, 16, 1, true, false);
+
+    // Sound requests from the game thread; drained once per block
+    private final AudioCommandRing commands = new AudioCommandRing(AudioCommandRing.DEFAULT_CAPACITY);
+    private final AudioCommandRing.Handler startSoundHandler = this::startSound;
+
+    // Scales synthesis quality to the time each block takes
+    private final AudioGovernor governor = new AudioGovernor();
+
+    // Tempo grid that landing chords are quantized to
+    private final BeatClock beatClock = new BeatClock();
+
+    // Sounds whose first sample is in the block being mixed, kept until the
+    // block is written so their latency can be recorded
+    private final LatencyStats latency = new LatencyStats();
+    private final int[] startedSoundIds = new int[VoiceAllocator.MAX_VOICES];
+    private final long[] startedTriggerNanos = new long[VoiceAllocator.MAX_VOICES];
+    private final long[] startedDrainNanos = new long[VoiceAllocator.MAX_VOICES];
+    private int startedCount = 0;
+    private long drainNanos = 0;
+    private final VoiceAllocator voices = new VoiceAllocator();
+    private final ChordCache chordCache;
+    private long framesMixed = 0; // Mixer thread only
+
+    private final float[] voiceBuffer = new float[BLOCK_FRAMES];
+    private final float[] mixBuffer = new float[BLOCK_FRAMES];
+    private final byte[] outputBuffer = new byte[BLOCK_FRAMES * 2];
+
+    // chordCache supplies pre-rendered chords; may be null to always synthesize
+    public AudioMixer(ChordCache chordCache) {
+        this.chordCache = chordCache;
+    }
+
+    private AudioBackend backend;
+    private Thread mixerThread;
+    private volatile boolean running = false;
+
+    // Opens the sound card output and starts the mixer thread.
+    // Returns false (and leaves the mixer silent) if no line is available.
+    public boolean start() {
+        return start(new LineAudioBackend());
+    }
+
+    // Opens the given backend and starts the mixer thread feeding it. A backend
+    // that isn't real time (e.g. a WAV file) is fed at the sample rate, so it
+    // records what was heard live; use startOffline to render as fast as possible.
+    public synchronized boolean start(AudioBackend backend) {
+        if (running) return true;
+        if (!open(backend)) return false;
+
+        mixerThread = new Thread(this, "AudioMixer");
+        mixerThread.setDaemon(true);
+        mixerThread.setPriority(Thread.MAX_PRIORITY);
+        mixerThread.start();
+        return true;
+    }
+
+    // Opens the given backend without a mixer thread; the caller then triggers
+    // sounds and calls renderBlock on its own thread
+    public synchronized boolean startOffline(AudioBackend backend) {
+        if (running) return false;
+        return open(backend);
+    }
+
+    private boolean open(AudioBackend backend) {
+        if (!backend.open(OUTPUT_FORMAT, outputBuffer.length * LINE_BUFFER_BLOCKS)) return false;
+        this.backend = backend;
+        running = true;
+        return true;
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    // Starts a sound (a SoundId) from the next block on. Chords use chordIndex and
+    // durationMs; effects have fixed lengths and ignore both. triggerNanos is the
+    // System.nanoTime() the sound was asked for, which latency is measured from.
+    // Must only be called from one thread (the game thread); never blocks or allocates.
+    // Returns false if the sound was dropped because the command ring was full.
+    public boolean trigger(int soundId, int chordIndex, int durationMs, float gain, long triggerNanos) {
+        if (!running || soundId < 0 || soundId >= SoundId.COUNT) return false;
+        if (soundId == SoundId.CHORD && (chordIndex < 0 || durationMs <= 0)) return false;
+        return commands.offer(soundId, chordIndex, durationMs, gain, triggerNanos);
+    }
+
+    public boolean trigger(int soundId, int chordIndex, int durationMs, float gain) {
+        return trigger(soundId, chordIndex, durationMs, gain, System.nanoTime());
+    }
+
+    public AudioGovernor getGovernor() {
+        return governor;
+    }
+
+    public BeatClock getBeatClock() {
+        return beatClock;
+    }
+
+    public LatencyStats getLatencyStats() {
+        return latency;
+    }
+
+    // Sounds dropped because the mixer fell behind the game thread
+    public long getDroppedCommandCount() {
+        return commands.getDroppedCount();
+    }
+
+    public VoiceAllocator getVoiceAllocator() {
+        return voices;
+    }
+
+    @Override
+    public void run() {
+        // The thread keeps its own reference and closes the backend when it exits,
+        // so shutdown() never closes it in the middle of a write
+        AudioBackend backend = this.backend;
+        try {
+            // Nothing else would stop a non-blocking backend from taking blocks as fast
+            // as they can be mixed, so park until each block is due on the sample clock
+            boolean paced = !backend.isRealtime();
+            long startNanos = System.nanoTime();
+            long startFrames = framesMixed;
+            while (running) {
+                renderBlock(backend);
+                if (paced) {
+                    long dueNanos = startNanos + (long) ((framesMixed - startFrames) / SAMPLE_RATE * 1e9);
+                    long wait = dueNanos - System.nanoTime();
+                    if (wait > 0) LockSupport.parkNanos(wait);
+                }
+            }
+        } finally {
+            backend.close();
+        }
+    }
+
+    // Mixes one block and writes it to the backend. A line backend blocks until
+    // the driver has room, which paces the mixer thread in real time.
+    public void renderBlock() {
+        renderBlock(backend);
+    }
+
+    private void renderBlock(AudioBackend backend) {
+        mixBlock();
+        if (startedCount == 0) {
+            backend.write(outputBuffer, outputBuffer.length);
+            return;
+        }
+
+        long mixedNanos = System.nanoTime();
+        // Audio queued ahead of this block has to play out before the new sounds are heard
+        long outputNanos = (long) (backend.getQueuedBytes() / 2 / SAMPLE_RATE * 1e9);
+        backend.write(outputBuffer, outputBuffer.length);
+        long writtenNanos = System.nanoTime();
+        for (int i = 0; i < startedCount; i++) {
+            int soundId = startedSoundIds[i];
+            latency.record(soundId, LatencyStats.QUEUE, startedDrainNanos[i] - startedTriggerNanos[i]);
+            latency.record(soundId, LatencyStats.SYNTH, mixedNanos - startedDrainNanos[i]);
+            latency.record(soundId, LatencyStats.WRITE, writtenNanos - mixedNanos);
+            latency.record(soundId, LatencyStats.OUTPUT, outputNanos);
+            latency.record(soundId, LatencyStats.TOTAL, writtenNanos - startedTriggerNanos[i] + outputNanos);
+        }
+        startedCount = 0;
+    }
+
+    // Frames mixed since the mixer started. Read on the mixer thread (or the offline caller).
+    public long getFramesMixed() {
+        return framesMixed;
+    }
+
+    // Mixes all active voices into one block of output.
+    private void mixBlock() {
+        drainNanos = System.nanoTime();
+        commands.drain(startSoundHandler);
+        int qualityTier = governor.getTier();
+
+        Arrays.fill(mixBuffer, 0.0f);
+        SynthKernels kernels = SynthKernels.get();
+        for (int v = voices.getActiveCount() - 1; v >= 0; v--) {
+            SynthVoice voice = voices.get(v);
+            // Scheduled voices start at their exact frame inside the block
+            long offset = Math.max(0, voice.startFrame - framesMixed);
+            if (offset >= BLOCK_FRAMES) continue;
+            int start = (int) offset;
+
+            voice.qualityTier = qualityTier;
+            int frames = voice.renderBlock(voiceBuffer, BLOCK_FRAMES - start);
+            voice.level = kernels.mix(voiceBuffer, mixBuffer, start, frames, voice.gain / 128.0f);
+            if (voice.latencyPending) {
+                voice.latencyPending = false;
+                if (startedCount < startedSoundIds.length) {
+                    startedSoundIds[startedCount] = voice.soundId;
+                    startedTriggerNanos[startedCount] = voice.triggerNanos;
+                    startedDrainNanos[startedCount] = voice.drainNanos;
+                    startedCount++;
+                }
+            }
+            if (voice.isFinished()) {
+                voices.remove(v);
+            }
+        }
+        framesMixed += BLOCK_FRAMES;
+
+        for (int i = 0; i < BLOCK_FRAMES; i++) {
+            float sample = mixBuffer[i];
+            if (sample > 1.0f) sample = 1.0f;
+            else if (sample < -1.0f) sample = -1.0f;
+            int value = (int) (sample * 32767);
+            outputBuffer[2 * i] = (byte) value;
+            outputBuffer[2 * i + 1] = (byte) (value >> 8);
+        }
+        governor.recordBlock(System.nanoTime() - drainNanos);
+    }
+
+    // Chords are keyed by index so rapid landings on the same chord retrigger it,
+    // and start on the next step of the beat grid when quantizing is on.
+    // A cached chord plays its stored samples; otherwise it is synthesized live
+    // and the cache is asked to render it for next time.
+    private void startSound(int soundId, int chordIndex, int durationMs, float gain, long triggerNanos) {
+        int coalesceKey = soundId == SoundId.CHORD ? chordIndex : -1;
+        SynthVoice voice = voices.acquire(coalesceKey, framesMixed);
+        if (soundId == SoundId.CHORD && beatClock.isQuantizing()) {
+            voice.startFrame = beatClock.nextStepFrame(framesMixed);
+        }
+        voice.triggerNanos = triggerNanos;
+        voice.drainNanos = drainNanos;
+        voice.latencyPending = true;
+
+        if (soundId == SoundId.CHORD && chordCache != null) {
+            byte[] cached = chordCache.get(chordIndex, durationMs);
+            if (cached != null) {
+                voice.startPcm(soundId, chordIndex, cached, gain);
+                return;
+            }
+            chordCache.requestRender(chordIndex, durationMs);
+        }
+        voice.start(soundId, chordIndex, durationMs, gain);
+    }
+
+    // Stops the mixer thread and closes the backend. With a mixer thread the
+    // thread closes it on its way out, which may be after the join gives up if a
+    // write is stuck; offline, it is closed here.
+    public synchronized void shutdown() {
+        if (!running) return;
+        running = false;
+        if (mixerThread != null) {
+            try {
+                mixerThread.join(500);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            mixerThread = null;
+        } else {
+            backend.close();
+        }
+        backend = null;
+    }
+}
@@ -0,0 +1,100 @@
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.List;
+
+// Records every sound trigger of a play session with its time, so the session's
+// audio can be rendered again later without a sound card.
+// Record by running the game with -Daudio.record=session.txt, then render with:
+//   java AudioSession session.txt session.wav
+// Each line is: <nanoseconds since start> <sound id> <chord index> <duration ms> <gain>
+class AudioSession {
+    private final PrintWriter out;
+    private final long startNanos;
+
+    private AudioSession(PrintWriter out) {
+        this.out = out;
+        this.startNanos = System.nanoTime();
+    }
+
+    // Starts recording to filename; returns null if the file cannot be created
+    static AudioSession record(String filename) {
+        try {
+            return new AudioSession(new PrintWriter(new FileWriter(filename)));
+        } catch (IOException e) {
+            System.err.println("Could not record audio session to " + filename + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    // Called on the game thread whenever a sound is triggered
+    synchronized void recordTrigger(int soundId, int chordIndex, int durationMs, float gain) {
+        out.println((System.nanoTime() - startNanos) + " " + soundId + " " + chordIndex + " " + durationMs + " " + gain);
+    }
+
+    synchronized void close() {
+        out.close();
+    }
+
+    // Renders a recorded session through the mixer into backend as fast as possible.
+    // Sounds start on the block containing their recorded time, as they did live.
+    // Returns the number of frames rendered.
+    static long render(String sessionFile, AudioBackend backend) throws IOException {
+        List<long[]> events = new ArrayList<>();
+        List<Float> gains = new ArrayList<>();
+        try (BufferedReader in = new BufferedReader(new FileReader(sessionFile))) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                String[] fields = line.trim().split("\\s+");
+                if (fields.length < 5) continue;
+                events.add(new long[] {
+                    Long.parseLong(fields[0]), Integer.parseInt(fields[1]),
+                    Integer.parseInt(fields[2]), Integer.parseInt(fields[3]) });
+                gains.add(Float.parseFloat(fields[4]));
+            }
+        }
+
+        // No chord cache: every sound is synthesized, so the output only depends on the session.
+        AudioMixer mixer = new AudioMixer(null);
+        // Full quality regardless of how fast this machine renders
+        mixer.getGovernor().setEnabled(false);
+        if (!mixer.startOffline(backend)) {
+            throw new IOException("Audio backend could not be opened");
+        }
+        try {
+            int next = 0;
+            while (next < events.size() || mixer.getVoiceAllocator().getActiveCount() > 0) {
+                long blockEnd = mixer.getFramesMixed() + AudioMixer.BLOCK_FRAMES;
+                while (next < events.size() && framesFor(events.get(next)[0]) < blockEnd) {
+                    long[] event = events.get(next);
+                    mixer.trigger((int) event[1], (int) event[2], (int) event[3], gains.get(next));
+                    next++;
+                }
+                mixer.renderBlock();
+            }
+            return mixer.getFramesMixed();
+        } finally {
+            mixer.shutdown();
+        }
+    }
+
+    private static long framesFor(long nanos) {
+        return (long) (nanos / 1e9 * AudioMixer.SAMPLE_RATE);
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.out.println("Usage: java AudioSession <session.txt> <output.wav>");
+            return;
+        }
+        long start = System.nanoTime();
+        long frames = render(args[0], new WavFileAudioBackend(args[1]));
+        double elapsedSec = (System.nanoTime() - start) / 1e9;
+        double audioSec = frames / AudioMixer.SAMPLE_RATE;
+        System.out.printf("Rendered %.1f s of audio to %s in %.2f s (%.0fx real time)%n",
+                audioSec, args[1], elapsedSec, audioSec / elapsedSec);
+    }
+}
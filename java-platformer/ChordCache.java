@@ -0,0 +1,252 @@
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+// Bounded cache of pre-rendered chord PCM, indexed by (chord index, quantized duration).
+// Landing chords only come from GameEngine.CHORDS and a 900-2500 ms duration range,
+// so the whole key space is small enough to keep in a flat array with LRU stamps.
+// Rendering happens on one low-priority background thread: chords the mixer
+// missed are rendered first, then the warm-up fills the rest of the budget.
+// Chords can also be pinned ahead of time, e.g. for the platforms of a newly
+// generated level chunk: pinned chords are rendered as soon as possible and
+// are never evicted until the last pin on them is released.
+// The mixer thread only calls get() and requestRender(), which never lock: buffers
+// are published through an atomic array, LRU stamps are plain writes (a stale stamp
+// only makes eviction slightly less exact), and render requests are atomic flags
+// followed by an unpark. Everything else runs under the cache's monitor on the game
+// and render threads. The render thread is started by startWarmUp() or pin() on the
+// game thread, never by a request from the mixer.
+class ChordCache implements Runnable {
+    static final int MIN_DURATION_MS = 900;
+    static final int MAX_DURATION_MS = 2500;
+    static final int BUCKET_MS = 100;
+    static final int NUM_BUCKETS = (MAX_DURATION_MS - MIN_DURATION_MS) / BUCKET_MS + 1;
+
+    private final int numChords;
+    private final long maxBytes;
+    private long bytesUsed = 0;
+    private final AtomicLong useCounter = new AtomicLong();
+
+    private final AtomicReferenceArray<byte[]> buffers; // key -> rendered samples (null if not cached)
+    private final long[] lastUsed;    // key -> useCounter value at last access
+    private final int[] pinCount;     // key -> outstanding pin() calls
+
+    private final AtomicIntegerArray renderRequested;  // key -> 1 while queued for the render thread
+    private final AtomicInteger requestedCount = new AtomicInteger();
+    private int warmUpPosition = -1;         // Next warm-up step, or -1 when not warming up
+    private volatile Thread renderThread;
+    private volatile boolean running = false;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public ChordCache(int numChords, long maxBytes) {
+        this.numChords = numChords;
+        this.maxBytes = maxBytes;
+        this.buffers = new AtomicReferenceArray<>(numChords * NUM_BUCKETS);
+        this.lastUsed = new long[numChords * NUM_BUCKETS];
+        this.renderRequested = new AtomicIntegerArray(numChords * NUM_BUCKETS);
+        this.pinCount = new int[numChords * NUM_BUCKETS];
+    }
+
+    // Rounds a duration to the nearest bucket inside the cached range
+    static int durationBucket(int durationMs) {
+        int clamped = Math.max(MIN_DURATION_MS, Math.min(MAX_DURATION_MS, durationMs));
+        return (clamped - MIN_DURATION_MS + BUCKET_MS / 2) / BUCKET_MS;
+    }
+
+    // The duration every chord in a bucket is rendered at
+    static int bucketDurationMs(int bucket) {
+        return MIN_DURATION_MS + bucket * BUCKET_MS;
+    }
+
+    private int key(int chordIndex, int bucket) {
+        return chordIndex * NUM_BUCKETS + bucket;
+    }
+
+    // Returns the cached samples for this chord and duration, or null on a miss.
+    // Never locks; safe to call from the mixer thread.
+    public byte[] get(int chordIndex, int durationMs) {
+        int key = key(chordIndex, durationBucket(durationMs));
+        byte[] samples = buffers.get(key);
+        if (samples != null) {
+            lastUsed[key] = useCounter.incrementAndGet();
+            hits.incrementAndGet();
+        } else {
+            misses.incrementAndGet();
+        }
+        return samples;
+    }
+
+    // Asks the render thread to cache this chord. Never locks or starts a thread;
+    // safe to call from the mixer thread.
+    public void requestRender(int chordIndex, int durationMs) {
+        int key = key(chordIndex, durationBucket(durationMs));
+        if (buffers.get(key) != null || !renderRequested.compareAndSet(key, 0, 1)) return;
+        requestedCount.incrementAndGet();
+        LockSupport.unpark(renderThread);
+    }
+
+    // Keeps this chord cached until a matching unpin(), rendering it in the background
+    // if needed. Pinned chords may take the cache past its memory cap.
+    public synchronized void pin(int chordIndex, int durationMs) {
+        int key = key(chordIndex, durationBucket(durationMs));
+        pinCount[key]++;
+        requestRender(chordIndex, durationMs);
+        startRenderThread();
+    }
+
+    // Releases one pin. Chords nobody pins any more become evictable again and
+    // are dropped straight away while the cache is over its cap.
+    public synchronized void unpin(int chordIndex, int durationMs) {
+        int key = key(chordIndex, durationBucket(durationMs));
+        if (pinCount[key] == 0) return;
+        pinCount[key]--;
+        while (bytesUsed > maxBytes && evictLeastRecentlyUsed()) {
+            // Trim back down to the cap
+        }
+    }
+
+    // Starts filling the cache in the background, shortest durations first,
+    // which is where most platform widths land, until the memory cap is reached.
+    public synchronized void startWarmUp() {
+        warmUpPosition = 0;
+        startRenderThread();
+        LockSupport.unpark(renderThread);
+    }
+
+    // Called with the monitor held, on the game thread
+    private void startRenderThread() {
+        if (running) return;
+        running = true;
+        Thread thread = new Thread(this, "ChordCacheRenderer");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        renderThread = thread;
+        thread.start();
+    }
+
+    @Override
+    public void run() {
+        while (running) {
+            int key;
+            synchronized (this) {
+                key = nextKeyToRender();
+            }
+            if (key < 0) {
+                // Requests unpark this thread; one made before parking makes park() return at once
+                LockSupport.park(this);
+                if (Thread.interrupted()) return;
+                continue;
+            }
+            int chordIndex = key / NUM_BUCKETS;
+            int bucket = key % NUM_BUCKETS;
+            byte[] samples = SynthVoice.renderToBuffer(SoundId.CHORD, chordIndex, bucketDurationMs(bucket));
+            put(chordIndex, bucket, samples);
+        }
+    }
+
+    // Requested chords first, then the next warm-up step; -1 if there is nothing to do
+    private int nextKeyToRender() {
+        if (requestedCount.get() > 0) {
+            for (int key = 0; key < renderRequested.length(); key++) {
+                if (renderRequested.getAndSet(key, 0) != 0) {
+                    requestedCount.decrementAndGet();
+                    return key;
+                }
+            }
+        }
+        // Warm-up walks buckets in ascending duration order, all chords per bucket
+        while (warmUpPosition >= 0 && warmUpPosition < buffers.length()) {
+            int bucket = warmUpPosition / numChords;
+            int key = key(warmUpPosition % numChords, bucket);
+            long size = (long) ((bucketDurationMs(bucket) / 1000.0) * AudioMixer.SAMPLE_RATE);
+            if (bytesUsed + size > maxBytes) break;
+            warmUpPosition++;
+            if (buffers.get(key) == null) return key;
+        }
+        warmUpPosition = -1;
+        return -1;
+    }
+
+    // Stops the render thread; cached buffers stay usable
+    public void shutdown() {
+        Thread thread;
+        synchronized (this) {
+            if (!running) return;
+            running = false;
+            thread = renderThread;
+            renderThread = null;
+        }
+        LockSupport.unpark(thread);
+        try {
+            thread.join(500);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private synchronized void put(int chordIndex, int bucket, byte[] samples) {
+        int key = key(chordIndex, bucket);
+        if (buffers.get(key) != null) return;
+
+        while (bytesUsed + samples.length > maxBytes && evictLeastRecentlyUsed()) {
+            // Make room, pinned chords excepted
+        }
+        if (pinCount[key] == 0 && bytesUsed + samples.length > maxBytes) return;
+        lastUsed[key] = useCounter.incrementAndGet();
+        bytesUsed += samples.length;
+        buffers.set(key, samples);
+    }
+
+    // Drops the least recently used unpinned chord; false if there is none
+    private boolean evictLeastRecentlyUsed() {
+        int victim = -1;
+        for (int key = 0; key < buffers.length(); key++) {
+            if (buffers.get(key) != null && pinCount[key] == 0
+                    && (victim < 0 || lastUsed[key] < lastUsed[victim])) {
+                victim = key;
+            }
+        }
+        if (victim < 0) return false;
+        // The mixer may still be playing it; it keeps its own reference
+        bytesUsed -= buffers.get(victim).length;
+        buffers.set(victim, null);
+        evictions.incrementAndGet();
+        return true;
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    public synchronized long getBytesUsed() {
+        return bytesUsed;
+    }
+
+    // Number of distinct chords currently pinned
+    public synchronized int getPinnedCount() {
+        int count = 0;
+        for (int pins : pinCount) {
+            if (pins > 0) count++;
+        }
+        return count;
+    }
+
+    public String getStats() {
+        return "Chord cache: " + getHits() + " hits, " + getMisses() + " misses, "
+                + getEvictions() + " evictions, " + getPinnedCount() + " pinned, "
+                + (getBytesUsed() / 1024) + " KB of " + (maxBytes / 1024) + " KB";
+    }
+}
@@ -0,0 +1,194 @@
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.RenderingHints;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+// Level chunks' platforms pre-rendered into images, so drawing a chunk is a few
+// blits instead of several fills per platform. A chunk's platforms never change
+// once it is generated.
+// Each chunk is cut into STRIP_WIDTH-wide strips in world space. Each strip covers
+// only the rows its platforms use and is baked the first time it comes on screen.
+// Strips start on whole world pixels and are blitted at the camera position rounded
+// to a whole pixel, so neighbouring strips line up exactly.
+// Strips are dropped once their chunk has despawned (retainOnly(), called by the
+// thread that draws with the chunks it still draws). If baking one takes the
+// cache past its memory cap, the least recently drawn strips are evicted; strips
+// drawn this frame are kept even if that leaves the cache over the cap.
+// Strips only pay off where Java2D blits managed images on the GPU. In the software
+// pipeline, blending a mostly transparent strip costs more than filling the few
+// platforms in it: about 3x slower in measurements. So draw() leaves platforms to the
+// chunk unless the surface has accelerated images. -Dplatform.strips=true or false
+// overrides that check.
+class ChunkStripCache {
+    static final int STRIP_WIDTH = 256;
+
+    private static class Strip {
+        final LevelChunk chunk;
+        final int index;
+        BufferedImage image; // null for a strip with no platforms in it
+        int top;
+        long bytes;
+        long lastUsedFrame;
+
+        Strip(LevelChunk chunk, int index) {
+            this.chunk = chunk;
+            this.index = index;
+        }
+    }
+
+    private static final String MODE = System.getProperty("platform.strips");
+
+    private GraphicsConfiguration checkedConfiguration;
+    private boolean accelerated;
+
+    private final long maxBytes;
+    private long bytesUsed = 0;
+    private long frame = 0;
+
+    private final IdentityHashMap<LevelChunk, Strip[]> stripsByChunk = new IdentityHashMap<>();
+    private final ArrayList<Strip> baked = new ArrayList<>();
+
+    private long bakes = 0;
+    private long evictions = 0;
+
+    ChunkStripCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    // Call once per frame before drawing chunks
+    void nextFrame() {
+        frame++;
+    }
+
+    // Whether strips should be used when drawing to g
+    boolean isWorthwhile(Graphics2D g) {
+        if (MODE != null) return Boolean.parseBoolean(MODE);
+        GraphicsConfiguration configuration = g.getDeviceConfiguration();
+        if (configuration != checkedConfiguration) {
+            checkedConfiguration = configuration;
+            accelerated = configuration.getImageCapabilities().isAccelerated();
+        }
+        return accelerated;
+    }
+
+    // Draws chunk's platforms as seen from cameraX, baking any strips not cached yet.
+    // Returns false, drawing nothing, if strips aren't worthwhile on this surface.
+    boolean draw(GameEngine ge, LevelChunk chunk, double cameraX) {
+        if (!isWorthwhile(ge.mGraphics)) return false;
+        double originX = Math.floor(chunk.startWorldX);
+        Strip[] strips = stripsByChunk.get(chunk);
+        if (strips == null) {
+            int count = (int) Math.ceil((chunk.startWorldX - originX + chunk.chunkWidth) / STRIP_WIDTH);
+            strips = new Strip[Math.max(1, count)];
+            stripsByChunk.put(chunk, strips);
+        }
+
+        // Whole pixels from here on, the same for every strip
+        long cameraPixel = (long) Math.floor(cameraX + 0.5);
+        for (int i = 0; i < strips.length; i++) {
+            long screenX = (long) originX + (long) i * STRIP_WIDTH - cameraPixel;
+            if (screenX + STRIP_WIDTH <= 0 || screenX >= ge.width()) continue;
+
+            Strip strip = strips[i];
+            if (strip == null) {
+                strip = new Strip(chunk, i);
+                strips[i] = strip;
+                bake(ge, strip, originX + (double) i * STRIP_WIDTH);
+            }
+            strip.lastUsedFrame = frame;
+            if (strip.image != null) {
+                ge.drawImage(strip.image, screenX, strip.top);
+            }
+        }
+        return true;
+    }
+
+    private void bake(GameEngine ge, Strip strip, double stripWorldX) {
+        LevelChunk chunk = strip.chunk;
+        double stripRight = stripWorldX + STRIP_WIDTH;
+        double minY = Double.MAX_VALUE, maxY = -Double.MAX_VALUE;
+        for (Platform p : chunk.platforms) {
+            double platformX = chunk.startWorldX + p.x;
+            if (platformX + p.width > stripWorldX && platformX < stripRight) {
+                minY = Math.min(minY, p.y);
+                maxY = Math.max(maxY, p.y + p.height);
+            }
+        }
+        if (minY > maxY) return; // Nothing in this strip
+
+        // A pixel of margin for antialiased edges
+        strip.top = (int) Math.floor(minY) - 1;
+        int height = (int) Math.ceil(maxY) + 1 - strip.top;
+        strip.bytes = (long) STRIP_WIDTH * height * 4;
+        trimToFit(strip.bytes);
+
+        // Compatible images stay managed, so Java2D can cache them in video memory
+        strip.image = ge.mGraphics.getDeviceConfiguration().createCompatibleImage(STRIP_WIDTH, height, Transparency.TRANSLUCENT);
+        Graphics2D g = strip.image.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g.translate(0, -strip.top);
+        ge.beginDrawingInto(g);
+        for (Platform p : chunk.platforms) {
+            double platformX = chunk.startWorldX + p.x;
+            if (platformX + p.width > stripWorldX && platformX < stripRight) {
+                // Drawn as if the camera were at the strip's left edge
+                p.draw(ge, chunk.startWorldX, stripWorldX);
+            }
+        }
+        ge.endDrawingInto();
+        g.dispose();
+
+        bytesUsed += strip.bytes;
+        baked.add(strip);
+        bakes++;
+    }
+
+    // Evicts least recently drawn strips until bytes more fit under the cap
+    private void trimToFit(long bytes) {
+        while (bytesUsed + bytes > maxBytes) {
+            Strip oldest = null;
+            for (Strip strip : baked) {
+                if (strip.lastUsedFrame < frame && (oldest == null || strip.lastUsedFrame < oldest.lastUsedFrame)) {
+                    oldest = strip;
+                }
+            }
+            if (oldest == null) return; // Everything left is on screen
+            // Only the image goes; the strip is baked again if it comes back on screen
+            stripsByChunk.get(oldest.chunk)[oldest.index] = null;
+            remove(oldest);
+            evictions++;
+        }
+    }
+
+    private void remove(Strip strip) {
+        baked.remove(strip);
+        bytesUsed -= strip.bytes;
+        strip.image.flush();
+        strip.image = null;
+    }
+
+    // Drops the strips of every chunk not in chunks, e.g. those despawned since the
+    // last frame
+    void retainOnly(List<LevelChunk> chunks) {
+        Iterator<Map.Entry<LevelChunk, Strip[]>> it = stripsByChunk.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<LevelChunk, Strip[]> entry = it.next();
+            if (chunks.contains(entry.getKey())) continue;
+            for (Strip strip : entry.getValue()) {
+                if (strip != null && strip.image != null) remove(strip);
+            }
+            it.remove();
+        }
+    }
+
+    String getStats() {
+        return "Platform strips: " + baked.size() + " cached, " + (bytesUsed / 1024) + " KB of " + (maxBytes / 1024)
+                + " KB, " + bakes + " baked, " + evictions + " evicted";
+    }
+}
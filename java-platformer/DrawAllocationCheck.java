@@ -0,0 +1,108 @@
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.lang.management.ManagementFactory;
+
+import javax.sound.sampled.AudioFormat;
+
+// Checks that GameEngine's drawing primitives allocate nothing per call. Each one is
+// warmed up, then called CALLS times drawing antialiased into a BufferedImage while
+// the thread's allocated bytes are counted. Exits with status 1 if any allocates.
+// The count is the lowest of ROUNDS rounds: a JIT recompile can allocate a few bytes
+// once, while an allocation per call shows up in every round.
+// Run with:
+//   javac *.java && java DrawAllocationCheck
+class DrawAllocationCheck {
+    private static final int WARMUP_CALLS = 50000;
+    private static final int CALLS = 10000;
+    private static final int ROUNDS = 5;
+
+    interface Primitive {
+        void draw(GameEngine ge, int i);
+    }
+
+    public static void main(String[] args) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        if (!threads.isThreadAllocatedMemorySupported()) {
+            System.out.println("This JVM cannot count allocated bytes per thread");
+            System.exit(2);
+        }
+        threads.setThreadAllocatedMemoryEnabled(true);
+
+        GameEngine ge = new GameEngine() {
+            // No window and no sound card; only the drawing functions are used
+            @Override public void setupWindow(int width, int height) {}
+            @Override protected AudioBackend createAudioBackend() { return new SilentBackend(); }
+            @Override public void update(double dt) {}
+            @Override public void paintComponent() {}
+        };
+        BufferedImage image = new BufferedImage(400, 300, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = image.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        ge.beginDrawingInto(g);
+
+        final Color color = new Color(200, 120, 40);
+        final int[] polygonX = { 10, 60, 30 };
+        final int[] polygonY = { 10, 20, 70 };
+        String[] names = {
+            "changeColor(Color)", "changeColor(r, g, b)",
+            "drawLine", "drawLine(width)", "drawRectangle", "drawRectangle(width)", "drawSolidRectangle",
+            "drawCircle", "drawCircle(width)", "drawSolidCircle", "drawSolidPolygon",
+            "save/translate/restore", "save/rotate/scale/shear/restore",
+        };
+        Primitive[] primitives = {
+            (e, i) -> e.changeColor(color),
+            // A handful of colours, which stay in the engine's colour cache
+            (e, i) -> e.changeColor((i & 7) * 30, 100, 200),
+            (e, i) -> e.drawLine(i % 300, 10, 50, 250),
+            (e, i) -> e.drawLine(i % 300, 10, 50, 250, 3),
+            (e, i) -> e.drawRectangle(i % 300, 20, 40, 30),
+            (e, i) -> e.drawRectangle(i % 300, 20, 40, 30, 3),
+            (e, i) -> e.drawSolidRectangle(i % 300 + 0.5, 20.25, 40, 30),
+            (e, i) -> e.drawCircle(i % 300, 100, 20),
+            (e, i) -> e.drawCircle(i % 300, 100, 20, 3),
+            (e, i) -> e.drawSolidCircle(i % 300 + 0.5, 100, 12.5),
+            (e, i) -> e.drawSolidPolygon(polygonX, polygonY, 3),
+            (e, i) -> { e.saveCurrentTransform(); e.translate(i % 50, 5); e.restoreLastTransform(); },
+            (e, i) -> { e.saveCurrentTransform(); e.rotate(i % 360); e.scale(1.5, 1.5); e.shear(0.1, 0); e.restoreLastTransform(); },
+        };
+
+        // Reading the counter may itself allocate; measured once and taken off each result
+        long overhead = Long.MAX_VALUE;
+        for (int i = 0; i < 10; i++) {
+            long before = threads.getCurrentThreadAllocatedBytes();
+            overhead = Math.min(overhead, threads.getCurrentThreadAllocatedBytes() - before);
+        }
+
+        boolean allocated = false;
+        for (int p = 0; p < primitives.length; p++) {
+            Primitive primitive = primitives[p];
+            for (int i = 0; i < WARMUP_CALLS; i++) primitive.draw(ge, i);
+
+            long bytes = Long.MAX_VALUE;
+            for (int round = 0; round < ROUNDS; round++) {
+                long before = threads.getCurrentThreadAllocatedBytes();
+                for (int i = 0; i < CALLS; i++) primitive.draw(ge, i);
+                bytes = Math.min(bytes, threads.getCurrentThreadAllocatedBytes() - before - overhead);
+            }
+
+            System.out.printf("%-32s %8d bytes over %d calls%n", names[p], bytes, CALLS);
+            if (bytes != 0) allocated = true;
+        }
+        ge.endDrawingInto();
+        g.dispose();
+
+        System.out.println(allocated ? "FAILED: some primitives allocate" : "OK: no primitive allocates");
+        System.exit(allocated ? 1 : 0);
+    }
+
+    // Refuses to open, which leaves the engine's mixer silent
+    private static class SilentBackend implements AudioBackend {
+        @Override public boolean open(AudioFormat format, int bufferBytes) { return false; }
+        @Override public void write(byte[] data, int length) {}
+        @Override public int getQueuedBytes() { return 0; }
+        @Override public boolean isRealtime() { return true; }
+        @Override public void close() {}
+    }
+}
@@ -0,0 +1,20 @@
+// Layers for batched drawing (GameEngine.beginBatch). Lower layers are drawn
+// first. Inside one layer, commands are grouped by colour, so only shapes that
+// never overlap, or overlap in one colour, can share a layer. That is why each
+// part of a multi-part entity gets its own layer.
+class DrawLayer {
+    static final int PLATFORM_BODY = 0;
+    static final int PLATFORM_TOP = 1;
+    static final int PLATFORM_BOTTOM = 2;
+    static final int PLATFORM_SIDE = 3;
+
+    static final int POWER_UP_OUTER_GLOW = 10;
+    static final int POWER_UP_MID_GLOW = 11;
+    static final int POWER_UP_CORE = 12;
+
+    static final int PARTICLE = 20;
+
+    static final int FIREBALL_OUTER = 30;
+    static final int FIREBALL_MID = 31;
+    static final int FIREBALL_CORE = 32;
+}
@@ -2,42 +2,74 @@ import java.awt.Color;
 
 class Fireball {
     double x, y, radius;    
+    double previousX;       // x before the latest update, for render interpolation; y never changes
     double speed;           
 
+    // Shared by every fireball; draw() runs for each one every frame
+    private static final Color COLOR_OUTER = new Color(200, 80, 0, 100); // Darker orange, semi-transparent
+    private static final Color COLOR_MID = new Color(255, 140, 0, 200); // Bright orange
+    private static final Color COLOR_CORE = new Color(255, 220, 150, 255); // Bright yellow/white, opaque
+
+    // Pre-rendered at every half pixel of radius; bigger fireballs are drawn with fills
+    private static final double SPRITE_RADIUS_STEP = 0.5;
+    private static final int MAX_SPRITE_RADIUS = 20;
+    private static final int SPRITE_SIZE = MAX_SPRITE_RADIUS * 2 + 2;
+    private static final SpriteAtlas.Family SPRITES = SpriteAtlas.shared().addFamily(SPRITE_SIZE, SPRITE_SIZE,
+            (int) (MAX_SPRITE_RADIUS / SPRITE_RADIUS_STEP) + 1, Fireball::paintSprite);
+
     public Fireball(double startX, double startY, double radius, double speed) {
         this.x = startX;
+        this.previousX = startX;
         this.y = startY;
         this.radius = radius; // This is the actual hit collider radius
         this.speed = speed; 
     }
 
     public void update(double dt) {
+        previousX = x;
         x -= speed * dt; 
     }
 
     public void draw(GameEngine ge, double cameraX) {
-        double screenCenterX = this.x - cameraX;
+        draw(ge, this.x, this.y, this.radius, cameraX);
+    }
+
+    // Draws a fireball from a render snapshot
+    public static void draw(GameEngine ge, double x, double y, double radius, double cameraX) {
+        double screenCenterX = x - cameraX;
+        int variant = (int) Math.round(radius / SPRITE_RADIUS_STEP);
+        if (variant < SPRITES.variants() && SpriteAtlas.shared().draw(ge, SPRITES, variant,
+                screenCenterX - SPRITE_SIZE / 2.0, y - SPRITE_SIZE / 2.0)) {
+            return;
+        }
+        drawLayers(ge, screenCenterX, y, radius);
+    }
+
+    private static void paintSprite(GameEngine ge, int variant) {
+        drawLayers(ge, SPRITE_SIZE / 2.0, SPRITE_SIZE / 2.0, variant * SPRITE_RADIUS_STEP);
+    }
 
-        // All visual layers will be within or at this.radius
+    private static void drawLayers(GameEngine ge, double screenCenterX, double centerY, double radius) {
+        // All visual layers will be within or at radius
 
         // Layer 1: Outer "casing" or "exhaust glow" - matches collider radius
         // For a bullet/rocket, this could be a slightly darker, less intense part of the effect, or a faint glow.
-        Color colorOuter = new Color(200, 80, 0, 100); // Darker orange, semi-transparent
-        double radiusOuter = this.radius; // Visual matches collider
-        ge.changeColor(colorOuter);
-        ge.drawSolidCircle(screenCenterX, this.y, radiusOuter);
+        double radiusOuter = radius; // Visual matches collider
+        ge.setDrawLayer(DrawLayer.FIREBALL_OUTER);
+        ge.changeColor(COLOR_OUTER);
+        ge.drawSolidCircle(screenCenterX, centerY, radiusOuter);
 
         // Layer 2: Main body / brighter flame
-        Color colorMid = new Color(255, 140, 0, 200); // Bright orange
-        double radiusMid = this.radius * 0.75; // Smaller than collider
-        ge.changeColor(colorMid);
-        ge.drawSolidCircle(screenCenterX, this.y, radiusMid);
+        double radiusMid = radius * 0.75; // Smaller than collider
+        ge.setDrawLayer(DrawLayer.FIREBALL_MID);
+        ge.changeColor(COLOR_MID);
+        ge.drawSolidCircle(screenCenterX, centerY, radiusMid);
 
         // Layer 3: Hot core / "bullet tip"
-        Color colorCore = new Color(255, 220, 150, 255); // Bright yellow/white, opaque
-        double radiusCore = this.radius * 0.4; // Smallest, brightest part
-        ge.changeColor(colorCore);
-        ge.drawSolidCircle(screenCenterX, this.y, radiusCore);
+        double radiusCore = radius * 0.4; // Smallest, brightest part
+        ge.setDrawLayer(DrawLayer.FIREBALL_CORE);
+        ge.changeColor(COLOR_CORE);
+        ge.drawSolidCircle(screenCenterX, centerY, radiusCore);
 
         // Optional: Add a small rectangular "fin" or "trail" element if desired for more rocket look,
         // but this would deviate from purely circular. For now, concentric circles give a projectile feel.
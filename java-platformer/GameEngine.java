@@ -8,8 +8,11 @@ import java.awt.event.*;
 import java.awt.image.*;
 import java.io.*;
 
-import java.util.Stack;
 import java.util.Random;
+import java.util.HashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
 
 import javax.imageio.*;
 import javax.sound.sampled.*;
@@ -17,9 +20,6 @@ import javax.sound.sampled.AudioFormat;
 import javax.sound.sampled.AudioSystem;
 import javax.sound.sampled.LineUnavailableException;
 import javax.sound.sampled.SourceDataLine;
-import java.util.concurrent.ExecutorService; // For asynchronous audio
-import java.util.concurrent.Executors;     // For creating thread pool
-import java.util.concurrent.TimeUnit;     // For shutting down executor
 
 public abstract class GameEngine implements KeyListener, MouseListener, MouseMotionListener {
     //-------------------------------------------------------
@@ -27,13 +27,21 @@ public abstract class GameEngine implements KeyListener, MouseListener, MouseMot
     //-------------------------------------------------------
     JFrame mFrame;
     GamePanel mPanel;
+    // Used instead of mPanel when the subclass asks for active rendering
+    Canvas mCanvas;
+    volatile BufferStrategy mBufferStrategy;
     int mWidth, mHeight;
     Graphics2D mGraphics;
     boolean initialised = false;
     // Add this field inside your GameEngine class, e.g., near other fields
 // Inside GameEngine class
-private final ExecutorService audioExecutor = Executors.newFixedThreadPool(12); // User specified 7 threads
-private final Random audioRandom = new Random(); // For sound effects (if not already present)
+// Pre-rendered landing chords, capped at 8 MB
+private final ChordCache chordCache = new ChordCache(CHORDS.length, 8L * 1024 * 1024);
+// Single always-open output line shared by every sound; sounds are synthesized on its thread
+private final AudioMixer audioMixer = new AudioMixer(chordCache);
+// Trigger log for offline rendering, when started with -Daudio.record=<file>
+private AudioSession audioSession = null;
+private boolean audioShutDown = false;
     //-------------------------------------------------------
     // Time-Related functions
     //-------------------------------------------------------
@@ -77,7 +85,19 @@ private final Random audioRandom = new Random(); // For sound effects (if not al
     // Function to create the window and display it
     public void setupWindow(int width, int height) {
         mFrame = new JFrame();
-        mPanel = new GamePanel();
+        Component surface;
+        if (useActiveRendering()) {
+            // Painted only by the game loop thread, never by the EDT
+            mCanvas = new Canvas();
+            mCanvas.setIgnoreRepaint(true);
+            mCanvas.setBackground(Color.BLACK);
+            mFrame.setIgnoreRepaint(true);
+            surface = mCanvas;
+        } else {
+            mPanel = new GamePanel();
+            mPanel.setDoubleBuffered(true);
+            surface = mPanel;
+        }
 
         mWidth = width;
         mHeight = height;
@@ -86,12 +106,21 @@ private final Random audioRandom = new Random(); // For sound effects (if not al
         mFrame.setLocation(200,200);
         mFrame.setTitle("Window");
         mFrame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
-        mFrame.add(mPanel);
+        mFrame.add(surface);
         mFrame.setVisible(true);
 
-        mPanel.setDoubleBuffered(true);
-        mPanel.addMouseListener(this);
-        mPanel.addMouseMotionListener(this);
+        // Mouse events go through dispatchInput() so they can be queued for the simulation thread
+        MouseAdapter mouseForwarder = new MouseAdapter() {
+            @Override public void mouseClicked(MouseEvent e) { dispatchInput(e); }
+            @Override public void mousePressed(MouseEvent e) { dispatchInput(e); }
+            @Override public void mouseReleased(MouseEvent e) { dispatchInput(e); }
+            @Override public void mouseEntered(MouseEvent e) { dispatchInput(e); }
+            @Override public void mouseExited(MouseEvent e) { dispatchInput(e); }
+            @Override public void mouseMoved(MouseEvent e) { dispatchInput(e); }
+            @Override public void mouseDragged(MouseEvent e) { dispatchInput(e); }
+        };
+        surface.addMouseListener(mouseForwarder);
+        surface.addMouseMotionListener(mouseForwarder);
 
         // Register a key event dispatcher to get a turn in handling all
         // key events, independent of which component currently has the focus
@@ -99,26 +128,30 @@ private final Random audioRandom = new Random(); // For sound effects (if not al
                 .addKeyEventDispatcher(new KeyEventDispatcher() {
                     @Override
                     public boolean dispatchKeyEvent(KeyEvent e) {
-                        switch (e.getID()) {
-                        case KeyEvent.KEY_PRESSED:
-                            GameEngine.this.keyPressed(e);
-                            return false;
-                        case KeyEvent.KEY_RELEASED:
-                            GameEngine.this.keyReleased(e);
-                            return false;
-                        case KeyEvent.KEY_TYPED:
-                            GameEngine.this.keyTyped(e);
-                            return false;
-                        default:
-                            return false; // do not consume the event
-                        }
+                        dispatchInput(e);
+                        return false; // do not consume the event
                     }
                 });
 
         // Resize the window
-        mPanel.setPreferredSize(new Dimension(width, height));
+        surface.setPreferredSize(new Dimension(width, height));
         mFrame.setResizable(false);
         mFrame.pack();
+        if (mCanvas != null) createBufferStrategy();
+    }
+
+    // Page flipping if the platform supports it, otherwise copying from a back buffer.
+    // Both keep their buffers in VolatileImages. Called on the EDT.
+    private void createBufferStrategy() {
+        BufferCapabilities flipping = new BufferCapabilities(
+                new ImageCapabilities(true), new ImageCapabilities(true),
+                BufferCapabilities.FlipContents.UNDEFINED);
+        try {
+            mCanvas.createBufferStrategy(2, flipping);
+        } catch (AWTException e) {
+            mCanvas.createBufferStrategy(2);
+        }
+        mBufferStrategy = mCanvas.getBufferStrategy();
     }
 
     public void setWindowSize(final int width, final int height) {
@@ -128,9 +161,12 @@ private final Random audioRandom = new Random(); // For sound effects (if not al
                 mWidth = width;
                 mHeight = height;
                 // Resize the window
-                mPanel.setPreferredSize(new Dimension(width, height));
-                mPanel.invalidate();
+                Component surface = (mCanvas != null) ? mCanvas : mPanel;
+                surface.setPreferredSize(new Dimension(width, height));
+                surface.invalidate();
                 mFrame.pack();
+                // The back buffers keep the size they were created with
+                if (mCanvas != null) createBufferStrategy();
             }
         });
     }
@@ -156,12 +192,25 @@ private final Random audioRandom = new Random(); // For sound effects (if not al
     // GameEngine Constructor
     public GameEngine(int width, int height) {
         // Create graphics transform stack
-        mTransforms = new Stack<AffineTransform>();
+        for (int i = 0; i < mTransforms.length; i++) {
+            mTransforms[i] = new AffineTransform();
+        }
 
         // Set default width, height
         mWidth = width;
         mHeight = height;
 
+        // Open the audio output once, up front
+        audioMixer.start(createAudioBackend());
+        String recordFile = System.getProperty("audio.record");
+        if (recordFile != null) {
+            audioSession = AudioSession.record(recordFile);
+        }
+        Runtime.getRuntime().addShutdownHook(new Thread(this::shutdownAudio, "AudioShutdown"));
+
+        // Render the common landing chords in the background; nothing would play them without a mixer
+        if (audioMixer.isRunning()) chordCache.startWarmUp();
+
         // Create window
         SwingUtilities.invokeLater(new Runnable() {
             @Override
@@ -216,12 +265,8 @@ private final Random audioRandom = new Random(); // For sound effects (if not al
     GameTimer timer = new GameTimer(30, new ActionListener() {
         @Override
         public void actionPerformed(ActionEvent e) {
-            // Determine the time step
-            double passedTime = measureTime();
-            double dt = passedTime / 1000.;
-
-            // Update the Game
-            update(dt);
+            // Update the Game, unless the simulation thread does
+            if (!mSimulationRunning) advanceSimulation();
 
             // Tell the Game to draw
             mPanel.repaint();
@@ -235,28 +280,418 @@ private final Random audioRandom = new Random(); // For sound effects (if not al
         // This gets called any time the Operating System
         // tells the program to paint itself
         public void paintComponent(Graphics graphics) {
-            // Get the graphics object
-            mGraphics = (Graphics2D)graphics;
+            paintFrame((Graphics2D)graphics);
+        }
+    }
+
+    // Draws one frame of the game into graphics
+    private void paintFrame(Graphics2D graphics) {
+        mFrameTime = System.nanoTime();
+        SoftwareRasterizer rasterizer = mRasterizer;
+        if (rasterizer != null && mWidth > 0 && mHeight > 0) {
+            // Draw into the rasterizer's frame, then show it in one go
+            mRasterizing = true;
+            drawFrame(rasterizer.begin(mWidth, mHeight, graphics));
+            rasterizer.flush();
+            mRasterizing = false;
+            graphics.drawImage(rasterizer.image(), 0, 0, null);
+        } else {
+            drawFrame(graphics);
+        }
+    }
+
+    private void drawFrame(Graphics2D graphics) {
+        // Get the graphics object
+        mGraphics = graphics;
+
+        // Reset all transforms
+        mCurrentTransform.setTransform(mGraphics.getTransform());
+        mTransforms[0].setTransform(mCurrentTransform);
+        mTransformCount = 1;
+
+        // Rendering settings
+        mGraphics.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        mGraphics.setStroke(mDefaultStroke);
+
+        // Paint the game
+        if (initialised) {
+            GameEngine.this.paintComponent();
+        }
+
+        // Draw anything still batched and keep this frame's batching counts
+        endBatch();
+        mLastRecordedFills = mRenderQueue.recordedFills;
+        mLastRecordedColorChanges = mRenderQueue.recordedColorChanges;
+        mLastDrawnFills = mRenderQueue.drawnFills;
+        mLastDrawnColorChanges = mRenderQueue.drawnColorChanges;
+        mRenderQueue.recordedFills = 0;
+        mRenderQueue.recordedColorChanges = 0;
+        mRenderQueue.drawnFills = 0;
+        mRenderQueue.drawnColorChanges = 0;
+    }
+
+    //-------------------------------------------------------
+    // Fixed timestep
+    //-------------------------------------------------------
+    // With a tick rate set, update() is always called with dt = 1 / tick rate, as
+    // many times as the elapsed time calls for, so physics behaves the same at any
+    // frame rate. A tick rate of 0 calls update() once per frame with the time
+    // since the last frame instead.
+    private volatile int mTickRate = 0;
+    // Ticks run per frame at most; after a longer stall (GC, window drag) the
+    // rest of the backlog is dropped and the game runs slower for that frame
+    private volatile int mMaxCatchUpTicks = 5;
+    private long mLastAdvanceNanos = 0;
+    private long mAccumulatedNanos = 0;
+    // Added to by the game loop and the simulation thread
+    private final AtomicLong mDroppedTicks = new AtomicLong();
+    // System.nanoTime() the simulation had reached at the latest tick, and when the frame being drawn started
+    private volatile long mTickTime = 0;
+    private volatile long mFrameTime = 0;
+
+    public void setTickRate(int ticksPerSecond) {
+        mTickRate = Math.max(0, ticksPerSecond);
+    }
+
+    public int getTickRate() {
+        return mTickRate;
+    }
+
+    public void setMaxCatchUpTicks(int ticks) {
+        mMaxCatchUpTicks = Math.max(1, ticks);
+    }
+
+    // How far between the last two ticks the frame being drawn is, from 0 to 1.
+    // paintComponent() can draw positions at previous + (current - previous) * alpha
+    // so motion stays smooth when the frame rate and tick rate differ. Always 1 without a tick rate.
+    public double getInterpolationAlpha() {
+        return getInterpolationAlpha(mTickTime);
+    }
+
+    // The same for state copied at getTickTime() == tickTime. With the simulation
+    // thread, a snapshot should use the tick time it was taken at; the latest tick
+    // may be newer than the snapshot being drawn.
+    public double getInterpolationAlpha(long tickTime) {
+        int tickRate = mTickRate;
+        if (tickRate <= 0) return 1.0;
+        double alpha = (mFrameTime - tickTime) / (1e9 / tickRate);
+        return Math.max(0.0, Math.min(1.0, alpha));
+    }
+
+    // System.nanoTime() the simulation has been advanced to by the latest tick
+    public long getTickTime() {
+        return mTickTime;
+    }
+
+    // Ticks skipped because they exceeded the catch-up limit
+    public long getDroppedTicks() {
+        return mDroppedTicks.get();
+    }
+
+    // Runs update() for the time passed since the last call. Called once per frame.
+    private void advanceSimulation() {
+        long now = System.nanoTime();
+        if (mLastAdvanceNanos == 0) mLastAdvanceNanos = now;
+        long elapsed = now - mLastAdvanceNanos;
+        mLastAdvanceNanos = now;
+
+        int tickRate = mTickRate;
+        if (tickRate <= 0) {
+            mAccumulatedNanos = 0;
+            update(elapsed / 1e9);
+            mTickTime = now;
+            publishRenderState();
+            return;
+        }
 
-            // Reset all transforms
-            mTransforms.clear();
-            mTransforms.push(mGraphics.getTransform());
+        long tickNanos = 1000000000L / tickRate;
+        double dt = tickNanos / 1e9;
+        mAccumulatedNanos += elapsed;
+        int ticks = 0;
+        while (mAccumulatedNanos >= tickNanos && ticks < mMaxCatchUpTicks) {
+            update(dt);
+            mAccumulatedNanos -= tickNanos;
+            ticks++;
+        }
+        if (mAccumulatedNanos >= tickNanos) {
+            mDroppedTicks.addAndGet(mAccumulatedNanos / tickNanos);
+            mAccumulatedNanos %= tickNanos;
+        }
+        mTickTime = now - mAccumulatedNanos;
+        if (ticks > 0) publishRenderState();
+    }
 
-            // Rendering settings
-            mGraphics.setRenderingHints(new RenderingHints(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON));
+    // Called after each run of ticks, on the thread that ran them, and once when
+    // gameLoop() starts. Override to copy what paintComponent() draws into a
+    // snapshot (see SnapshotBuffer) when update() runs on the simulation thread.
+    protected void publishRenderState() {}
 
-            // Paint the game
-            if (initialised) {
-                GameEngine.this.paintComponent();
+    //-------------------------------------------------------
+    // Active rendering
+    //-------------------------------------------------------
+    // Override to return true to run update() and paintComponent() on a dedicated
+    // game loop thread that draws straight into a Canvas BufferStrategy, instead of
+    // on the Swing Timer + repaint() path. update() and paintComponent() are called
+    // the same way either way; only the thread changes. Keyboard and mouse events
+    // are queued on the EDT and handed to the game's handlers on the loop thread
+    // before each update(), so the handlers never race update() or drawing.
+    protected boolean useActiveRendering() {
+        return false;
+    }
+
+    private Thread mLoopThread;
+    private volatile boolean mLoopRunning = false;
+    private volatile double mFramesPerSecond = 0;
+
+    // Frames actually presented per second by the active loop, averaged over the last second
+    public double getFramesPerSecond() {
+        return mFramesPerSecond;
+    }
+
+    private void startActiveLoop(final int framerate) {
+        mQueueInput = true;
+        mLoopRunning = true;
+        mLoopThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                runActiveLoop(Math.max(1, framerate));
+            }
+        }, "GameLoop");
+        mLoopThread.setDaemon(true);
+        mLoopThread.start();
+    }
+
+    // Updates, renders and presents a frame, then parks until the next frame is due.
+    // Uses System.nanoTime() throughout since a millisecond timer cannot pace 244 FPS.
+    private void runActiveLoop(int framerate) {
+        long framePeriod = 1000000000L / framerate;
+        long nextFrame = System.nanoTime();
+        long fpsWindowStart = nextFrame;
+        int fpsFrames = 0;
+
+        while (mLoopRunning) {
+            if (!mSimulationRunning) {
+                deliverQueuedInput();
+                advanceSimulation();
             }
+            if (renderActiveFrame()) fpsFrames++;
+
+            long now = System.nanoTime();
+            if (now - fpsWindowStart >= 1000000000L) {
+                mFramesPerSecond = fpsFrames * 1e9 / (now - fpsWindowStart);
+                fpsWindowStart = now;
+                fpsFrames = 0;
+            }
+
+            nextFrame += framePeriod;
+            if (now - nextFrame > framePeriod) {
+                // Fell more than a frame behind; don't try to catch up with a burst
+                nextFrame = now;
+            }
+            long wait = nextFrame - now;
+            if (wait > 0) LockSupport.parkNanos(wait);
+        }
+    }
+
+    // Returns false if there was nothing to draw into yet
+    private boolean renderActiveFrame() {
+        BufferStrategy strategy = mBufferStrategy;
+        if (strategy == null) return false;
+        try {
+            do {
+                do {
+                    Graphics2D graphics = (Graphics2D) strategy.getDrawGraphics();
+                    try {
+                        // Back buffer contents are undefined after a flip; the
+                        // software renderer's frame covers all of it anyway
+                        if (mRasterizer == null) {
+                            graphics.setColor(mCanvas.getBackground());
+                            graphics.fillRect(0, 0, mCanvas.getWidth(), mCanvas.getHeight());
+                        }
+                        paintFrame(graphics);
+                    } finally {
+                        graphics.dispose();
+                    }
+                } while (strategy.contentsRestored());
+                strategy.show();
+            } while (strategy.contentsLost());
+        } catch (IllegalStateException e) {
+            // The window replaced its buffers (e.g. on resize); draw into the new ones next frame
+            return false;
+        }
+        Toolkit.getDefaultToolkit().sync();
+        return true;
+    }
+
+    //-------------------------------------------------------
+    // Simulation thread
+    //-------------------------------------------------------
+    // Override to return true to run update() on its own "Simulation" thread, at the
+    // tick rate, while the frame thread (the game loop or the Swing timer) only draws.
+    // A tick and a frame can then run at the same time on different cores, and a slow
+    // frame no longer holds back physics or input. Without a tick rate, ticks run at
+    // the frame rate given to gameLoop().
+    // Keyboard and mouse events are queued on the EDT and handed to the game's
+    // handlers on the simulation thread before the next run of ticks, so the handlers
+    // and update() never race, and sounds are only ever played from one thread.
+    // paintComponent() runs while update() changes the game's state, so it must only
+    // draw what publishRenderState() copied out for it.
+    protected boolean useSimulationThread() {
+        return false;
+    }
+
+    private Thread mSimulationThread;
+    private volatile boolean mSimulationRunning = false;
+    // Input events are queued instead of handled while true
+    private volatile boolean mQueueInput = false;
+    private final ConcurrentLinkedQueue<InputEvent> mInputQueue = new ConcurrentLinkedQueue<>();
+
+    private void startSimulationThread(final int framerate) {
+        mQueueInput = true;
+        mSimulationRunning = true;
+        mSimulationThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                runSimulationLoop(Math.max(1, framerate));
+            }
+        }, "Simulation");
+        mSimulationThread.setDaemon(true);
+        mSimulationThread.start();
+    }
+
+    // Runs each tick when it falls due, then parks until the next one. A tick due at
+    // time t advances the game to t, so getTickTime() is the due time of the latest.
+    private void runSimulationLoop(int framerate) {
+        int tickRate = (mTickRate > 0) ? mTickRate : framerate;
+        long nextTick = System.nanoTime() + 1000000000L / tickRate;
+
+        while (mSimulationRunning) {
+            deliverQueuedInput();
+
+            tickRate = (mTickRate > 0) ? mTickRate : framerate;
+            long tickNanos = 1000000000L / tickRate;
+            double dt = tickNanos / 1e9;
+            long now = System.nanoTime();
+            int ticks = 0;
+            long tickTime = 0;
+            while (now - nextTick >= 0 && ticks < mMaxCatchUpTicks) {
+                update(dt);
+                tickTime = nextTick;
+                nextTick += tickNanos;
+                ticks++;
+            }
+            if (now - nextTick >= 0) {
+                // Past the catch-up limit; drop the rest rather than fall further behind
+                long behind = (now - nextTick) / tickNanos + 1;
+                mDroppedTicks.addAndGet(behind);
+                nextTick += behind * tickNanos;
+            }
+            if (ticks > 0) {
+                mTickTime = tickTime;
+                publishRenderState();
+            }
+
+            long wait = nextTick - System.nanoTime();
+            if (wait > 0) LockSupport.parkNanos(wait);
+        }
+    }
+
+    // Hands an input event to the game's handler, or queues it for the simulation thread
+    private void dispatchInput(InputEvent event) {
+        if (mQueueInput) {
+            mInputQueue.add(event);
+        } else {
+            deliverInput(event);
+        }
+    }
+
+    private void deliverQueuedInput() {
+        InputEvent event;
+        while ((event = mInputQueue.poll()) != null) {
+            deliverInput(event);
         }
     }
 
+    private void deliverInput(InputEvent event) {
+        switch (event.getID()) {
+        case KeyEvent.KEY_PRESSED:      keyPressed((KeyEvent) event); break;
+        case KeyEvent.KEY_RELEASED:     keyReleased((KeyEvent) event); break;
+        case KeyEvent.KEY_TYPED:        keyTyped((KeyEvent) event); break;
+        case MouseEvent.MOUSE_CLICKED:  mouseClicked((MouseEvent) event); break;
+        case MouseEvent.MOUSE_PRESSED:  mousePressed((MouseEvent) event); break;
+        case MouseEvent.MOUSE_RELEASED: mouseReleased((MouseEvent) event); break;
+        case MouseEvent.MOUSE_ENTERED:  mouseEntered((MouseEvent) event); break;
+        case MouseEvent.MOUSE_EXITED:   mouseExited((MouseEvent) event); break;
+        case MouseEvent.MOUSE_MOVED:    mouseMoved((MouseEvent) event); break;
+        case MouseEvent.MOUSE_DRAGGED:  mouseDragged((MouseEvent) event); break;
+        default: break;
+        }
+    }
+
+    //-------------------------------------------------------
+    // Software rendering
+    //-------------------------------------------------------
+    // With the software renderer, each frame is drawn into an int[] framebuffer and
+    // shown with one drawImage. drawSolidRectangle, drawSolidCircle and
+    // drawSolidPolygon are queued for the rasterizer (see SoftwareRasterizer) while
+    // the transform is a plain translation and the paint a Color. It fills them on
+    // several threads at once, in horizontal bands of the frame. Everything else, and
+    // mGraphics itself, draws into the same frame through Java2D. Those draw calls
+    // fill the queue first, like a batch; code that uses mGraphics directly must
+    // call endBatch() first. Batching is skipped, because the rasterizer pays
+    // nothing for colour changes.
+    // The frame is width() x height() pixels, so on a scaled (HiDPI) display it is
+    // stretched to fit. Override to choose the renderer in code, or run with
+    // -Dgame.renderer=software. It is chosen once, when gameLoop() starts.
+    protected boolean useSoftwareRenderer() {
+        return "software".equals(System.getProperty("game.renderer"));
+    }
+
+    // Threads the software renderer fills on, counting the one drawing the frame.
+    // -Dgame.renderer.threads overrides the default of one per core.
+    protected int softwareRenderThreads() {
+        return Integer.getInteger("game.renderer.threads", Runtime.getRuntime().availableProcessors());
+    }
+
+    private SoftwareRasterizer mRasterizer;
+    // True while drawing into the rasterizer's frame
+    private boolean mRasterizing = false;
+
+    public boolean isSoftwareRendering() {
+        return mRasterizer != null;
+    }
+
+    // Colour of the fill canRasterize() last accepted
+    private int mRasterColor;
+
+    // Whether a solid fill can go to the rasterizer; sets mRasterColor if so
+    private boolean canRasterize() {
+        if (!mRasterizing) return false;
+        if ((mCurrentTransform.getType() & ~AffineTransform.TYPE_TRANSLATION) != 0) return false;
+        Paint paint = mGraphics.getPaint();
+        if (!(paint instanceof Color)) return false;
+        mRasterColor = ((Color)paint).getRGB();
+        return true;
+    }
+
     public void drawSolidPolygon(int[] xPoints, int[] yPoints, int nPoints) {
+    if (mBatching) {
+        if (nPoints == 3) {
+            if (mRenderQueue.isFull()) flushBatch();
+            mRenderQueue.fillTriangle(mDrawLayer, mBatchColor, xPoints[0], yPoints[0], xPoints[1], yPoints[1], xPoints[2], yPoints[2]);
+            return;
+        }
+        flushBatch();
+    }
+    if (mGraphics != null && canRasterize()) {
+        mRasterizer.fillPolygon(xPoints, yPoints, nPoints, mCurrentTransform.getTranslateX(), mCurrentTransform.getTranslateY(), mRasterColor);
+        return;
+    }
     if (mGraphics != null) { // mGraphics is your Graphics/Graphics2D instance
         // If mGraphics is just Graphics, fillPolygon is directly available.
         // If it's Graphics2D, fillPolygon is also available.
-        mGraphics.fillPolygon(xPoints, yPoints, nPoints);
+        mPolygon.set(xPoints, yPoints, nPoints);
+        mGraphics.fill(mPolygon);
 
         // Alternatively, if you want to ensure it's Graphics2D and use Polygon object:
         // if (mGraphics instanceof java.awt.Graphics2D) {
@@ -304,7 +739,7 @@ private final Random audioRandom = new Random(); // For sound effects (if not al
 
     // Define 11 chords in/related to A minor, voiced for synthwave
     // Ordered from "highest sounding" (for highest platforms) to "lowest sounding"
-    private static final double[][] CHORDS = {
+    static final double[][] CHORDS = {
         { A3, C4, E4 },           // 0: Am (high)
         { G3, B3, D4 },           // 1: G major (high)
         { F3, A3, C4 },           // 2: F major (mid-high)
@@ -327,8 +762,31 @@ private final Random audioRandom = new Random(); // For sound effects (if not al
      */
     public void playTone(double platformFrequency, int durationMs) {
         if (platformFrequency <= 0 || durationMs <= 0) return;
-        
-        // Map the incoming platformFrequency (approx 55Hz to 440Hz) to one of the 11 chords.
+
+        final int chordIndex = chordIndexForFrequency(platformFrequency);
+
+        // Cached chords start from their pre-rendered buffer; anything else is
+        // synthesized block by block on the mixer thread. Either way the chord
+        // starts at an exact sample, on the mixer's beat grid if setChordQuantize(true).
+        playSound(SoundId.CHORD, chordIndex, durationMs);
+    }
+
+    // Renders the chord playTone(platformFrequency, durationMs) would play in the
+    // background and keeps it cached, so playing it later needs no synthesis.
+    // Every call must be matched by a releaseTone() with the same arguments.
+    public void prepareTone(double platformFrequency, int durationMs) {
+        if (platformFrequency <= 0 || durationMs <= 0) return;
+        chordCache.pin(chordIndexForFrequency(platformFrequency), durationMs);
+    }
+
+    // Lets the cache drop a chord pinned by prepareTone()
+    public void releaseTone(double platformFrequency, int durationMs) {
+        if (platformFrequency <= 0 || durationMs <= 0) return;
+        chordCache.unpin(chordIndexForFrequency(platformFrequency), durationMs);
+    }
+
+    // Maps a platform frequency (approx 55Hz to 440Hz) to one of the CHORDS entries
+    static int chordIndexForFrequency(double platformFrequency) {
         // Higher platformFrequency (from higher on-screen platforms) -> lower chordIndex (higher pitched chord set)
         // Lower platformFrequency (from lower on-screen platforms) -> higher chordIndex (lower pitched chord set)
         
@@ -352,322 +810,127 @@ private final Random audioRandom = new Random(); // For sound effects (if not al
                                                                          // We want high freq to be low index
             chordIndex = (CHORDS.length - 1) - chordIndex; // Invert the index
         }
-        chordIndex = Math.max(0, Math.min(CHORDS.length - 1, chordIndex)); // Clamp index
-        
-        final double[] currentChordFreqs = CHORDS[chordIndex];
-
-        audioExecutor.submit(() -> {
-            SourceDataLine sdl = null;
-            try {
-                float sampleRate = 44100;
-                int bitsPerSample = 8; 
-                AudioFormat af = new AudioFormat(sampleRate, bitsPerSample, 1, true, false);
-                sdl = AudioSystem.getSourceDataLine(af);
-                
-                final SourceDataLine finalSdl = sdl;
-                sdl.addLineListener(event -> {
-                    if (event.getType() == LineEvent.Type.STOP) {
-                        if (finalSdl.isOpen()) finalSdl.close();
-                    }
-                });
-
-                sdl.open(af);
-                sdl.start();
+        return Math.max(0, Math.min(CHORDS.length - 1, chordIndex)); // Clamp index
+    }
 
-                int numSamples = (int) ((durationMs / 1000.0) * sampleRate);
-                byte[] buf = new byte[numSamples];
+    // Sounds are triggered from the game thread (update and key handlers); each
+    // call only writes one command into the mixer's ring
+    private void playSound(int soundId, int chordIndex, int durationMs) {
+        long triggerNanos = System.nanoTime(); // Start of the measured input-to-sound latency
+        audioMixer.trigger(soundId, chordIndex, durationMs, 1.0f, triggerNanos);
+        AudioSession session = audioSession;
+        if (session != null) {
+            session.recordTrigger(soundId, chordIndex, durationMs, 1.0f);
+        }
+    }
 
-                float attackTimeSec = 0.008f * (durationMs / 1000.0f); 
-                float decayTimeSec = 0.15f * (durationMs / 1000.0f);   
-                float sustainLevel = 0.70f;                    
-                float releaseTimeSec = 0.25f * (durationMs / 1000.0f); 
+    public void playMidAirJumpSound() { playSound(SoundId.MID_AIR_JUMP, -1, 0); }
+    public void playGroundJumpPuffSound() { playSound(SoundId.GROUND_JUMP_PUFF, -1, 0); }
+    public void playGroundLandingPfftSound() { playSound(SoundId.GROUND_LANDING_PFFT, -1, 0); }
+    public void playShieldCollectSound() { playSound(SoundId.SHIELD_COLLECT, -1, 0); }
+    public void playBoingSound() { playSound(SoundId.BOING, -1, 0); }
+    public void playHitSound() { playSound(SoundId.HIT, -1, 0); }
+    public void playDeathSound() { playSound(SoundId.DEATH, -1, 0); }
 
-                double detuneFactor = 1.006; 
-                double harmonicNormalization = 1.0 + 1.0/2.0 + 1.0/3.0 + 1.0/4.0 + 1.0/5.0; // Sum of 1/k for k=1 to 5
+    // Limits how many sounds play at once; beyond that, new sounds steal the
+    // oldest or quietest voice
+    public void setAudioPolyphony(int maxVoices, VoiceAllocator.StealPolicy policy) {
+        audioMixer.getVoiceAllocator().setMaxPolyphony(maxVoices);
+        audioMixer.getVoiceAllocator().setStealPolicy(policy);
+    }
 
-                for (int i = 0; i < numSamples; i++) {
-                    double currentTimeSec = (double) i / sampleRate;
-                    double combinedSampleValue = 0.0;
+    // Tempo of the grid landing chords snap to, e.g. (120, 4) for sixteenths at 120 BPM
+    public void setMusicTempo(double bpm, int stepsPerBeat) {
+        audioMixer.getBeatClock().setTempo(bpm, stepsPerBeat);
+    }
 
-                    for (int noteIndex = 0; noteIndex < currentChordFreqs.length; noteIndex++) {
-                        double noteFreq1 = currentChordFreqs[noteIndex];
-                        double noteFreq2 = noteFreq1 * detuneFactor; 
+    // When on, landing chords start on the next grid step rather than immediately.
+    // Off by default, as waiting for the step delays a chord by up to one step.
+    public void setChordQuantize(boolean quantize) {
+        audioMixer.getBeatClock().setQuantizing(quantize);
+    }
 
-                        double angle1 = currentTimeSec * noteFreq1 * 2.0 * Math.PI;
-                        double angle2 = currentTimeSec * noteFreq2 * 2.0 * Math.PI;
-                        
-                        double osc1Saw = 0.0;
-                        double osc2Saw = 0.0;
-                        for (int k=1; k <= 5; k++) { // Sum first 5 harmonics
-                            osc1Saw += (1.0/k) * Math.sin(k * angle1);
-                            osc2Saw += (1.0/k) * Math.sin(k * angle2);
-                        }
-                        osc1Saw /= harmonicNormalization; 
-                        osc2Saw /= harmonicNormalization;
-                        
-                        combinedSampleValue += (osc1Saw + osc2Saw) * 0.5; // Average the two detuned oscillators for this note
-                    }
-                    
-                    double amplitudeMultiplier = 0.0;
-                    if (currentTimeSec < attackTimeSec) { 
-                        amplitudeMultiplier = (attackTimeSec > 0.0001) ? currentTimeSec / attackTimeSec : 1.0;
-                    } else if (currentTimeSec < attackTimeSec + decayTimeSec) { 
-                        amplitudeMultiplier = 1.0 - ((currentTimeSec - attackTimeSec) / decayTimeSec) * (1.0 - sustainLevel);
-                    } else if (currentTimeSec < (durationMs / 1000.0f) - releaseTimeSec) { 
-                        amplitudeMultiplier = sustainLevel;
-                    } else { 
-                        double timeIntoRelease = currentTimeSec - ((durationMs / 1000.0f) - releaseTimeSec);
-                        if (releaseTimeSec > 0.001) { 
-                            amplitudeMultiplier = sustainLevel * (1.0 - (timeIntoRelease / releaseTimeSec));
-                        } else {
-                            amplitudeMultiplier = 0; 
-                        }
-                    }
-                    
-                    amplitudeMultiplier = Math.max(0.0, Math.min(1.0, amplitudeMultiplier));
-                    // Scale final sample. Max combinedSampleValue is approx number of notes (3 or 4).
-                    // Let's use a general scaling factor, e.g., 20-25 for 8-bit.
-                    buf[i] = (byte) (combinedSampleValue * amplitudeMultiplier * 22); 
-                }
-                sdl.write(buf, 0, numSamples);
-            } catch (LineUnavailableException e) {
-                System.err.println("Audio line unavailable for synth chord: " + e.getMessage());
-            } catch (Exception e) {
-                System.err.println("Unexpected error playing synth chord: " + e.getMessage());
-            } finally {
-                if (sdl != null && sdl.isOpen() && !sdl.isRunning()) { 
-                    sdl.close();
-                }
-            }
-        });
+    // Landing chords repeated within this window restart the playing chord
+    public void setChordRetriggerWindow(int ms) {
+        audioMixer.getVoiceAllocator().setCoalesceWindowMs(ms);
     }
 
-    public void playMidAirJumpSound() { 
-        audioExecutor.submit(() -> {
-            SourceDataLine sdl = null;
-            try {
-                float sampleRate = 44100; int bitsPerSample = 8;
-                AudioFormat af = new AudioFormat(sampleRate, bitsPerSample, 1, true, false);
-                sdl = AudioSystem.getSourceDataLine(af);
-                final SourceDataLine finalSdl = sdl;
-                sdl.addLineListener(event -> { if (event.getType() == LineEvent.Type.STOP && finalSdl.isOpen()) finalSdl.close(); });
-                sdl.open(af); sdl.start();
-                int durationMs = 180; 
-                int numSamples = (int) ((durationMs / 1000.0) * sampleRate);
-                byte[] buf = new byte[numSamples];
-                double startFreq = 380; double endFreq = 250;
-                for (int i = 0; i < numSamples; i++) {
-                    double progress = (double)i / numSamples;
-                    double currentFreq = startFreq - Math.pow(progress, 0.6) * (startFreq - endFreq); 
-                    double angle = (i / (sampleRate / currentFreq)) * 2.0 * Math.PI;
-                    double sampleValue = 0.7 * Math.sin(angle) + 0.3 * Math.sin(1.8 * angle + 0.15);
-                    double envelope;
-                    if (progress < 0.1) { envelope = progress / 0.1; } 
-                    else { envelope = Math.exp(-(progress - 0.1) * 12.0); }
-                    envelope = Math.max(0, Math.min(1, envelope));
-                    buf[i] = (byte) (sampleValue * 60 * envelope);
-                }
-                sdl.write(buf, 0, numSamples);
-            } catch (Exception e) { if (sdl != null && sdl.isOpen()) sdl.close(); }
-        });
+    // Sounds dropped because more were triggered in one mix block than the mixer's command ring holds
+    public long getDroppedSoundCount() {
+        return audioMixer.getDroppedCommandCount();
     }
-    public void playGroundJumpPuffSound() { 
-        audioExecutor.submit(() -> {
-            SourceDataLine sdl = null;
-            try {
-                float sampleRate = 44100; int bitsPerSample = 8;
-                AudioFormat af = new AudioFormat(sampleRate, bitsPerSample, 1, true, false);
-                sdl = AudioSystem.getSourceDataLine(af);
-                final SourceDataLine finalSdl = sdl;
-                sdl.addLineListener(event -> { if (event.getType() == LineEvent.Type.STOP && finalSdl.isOpen()) finalSdl.close(); });
-                sdl.open(af); sdl.start();
-                int durationMs = 120;
-                int numSamples = (int) ((durationMs / 1000.0) * sampleRate);
-                byte[] buf = new byte[numSamples];
-                for (int i = 0; i < numSamples; i++) {
-                    buf[i] = (byte) (audioRandom.nextInt(80) - 40);
-                }
-                for (int i = 0; i < numSamples; i++) {
-                    double progress = (double)i / numSamples;
-                    double amplitudeMultiplier = Math.sin(progress * Math.PI * 0.9 + 0.05 * Math.PI);
-                    amplitudeMultiplier *= Math.exp(-progress * 7.0); 
-                    buf[i] = (byte) (buf[i] * amplitudeMultiplier * 0.30); 
-                }
-                sdl.write(buf, 0, numSamples);
-            } catch (Exception e) { if (sdl != null && sdl.isOpen()) sdl.close(); }
-        });
+
+    // Current synthesis quality tier (AudioGovernor.TIER_FULL is best)
+    public int getAudioQualityTier() {
+        return audioMixer.getGovernor().getTier();
     }
-    public void playGroundLandingPfftSound() { 
-        audioExecutor.submit(() -> {
-            SourceDataLine sdl = null;
-            try {
-                float sampleRate = 44100; int bitsPerSample = 8;
-                AudioFormat af = new AudioFormat(sampleRate, bitsPerSample, 1, true, false);
-                sdl = AudioSystem.getSourceDataLine(af);
-                final SourceDataLine finalSdl = sdl;
-                sdl.addLineListener(event -> { if (event.getType() == LineEvent.Type.STOP && finalSdl.isOpen()) finalSdl.close(); });
-                sdl.open(af); sdl.start();
-                int durationMs = 90;
-                int numSamples = (int) ((durationMs / 1000.0) * sampleRate);
-                byte[] buf = new byte[numSamples];
-                for (int i = 0; i < numSamples; i++) {
-                    buf[i] = (byte) (audioRandom.nextInt(80) - 40);
-                }
-                for (int i = 0; i < numSamples; i++) {
-                    double progress = (double)i / numSamples;
-                    double amplitudeMultiplier;
-                    if (progress < 0.05) { amplitudeMultiplier = progress / 0.05; } 
-                    else { amplitudeMultiplier = Math.exp(-(progress - 0.05) * 25.0); }
-                    buf[i] = (byte) (buf[i] * amplitudeMultiplier * 0.20); 
-                }
-                sdl.write(buf, 0, numSamples);
-            } catch (Exception e) { if (sdl != null && sdl.isOpen()) sdl.close(); }
-        });
+
+    // Smoothed fraction of the audio thread's real-time budget in use (1.0 = none left)
+    public double getAudioBudgetUsage() {
+        return audioMixer.getGovernor().getLoad();
     }
-    public void playShieldCollectSound() { 
-        audioExecutor.submit(() -> {
-            SourceDataLine sdl = null;
-            try {
-                float sampleRate = 44100; int bitsPerSample = 8;
-                AudioFormat af = new AudioFormat(sampleRate, bitsPerSample, 1, true, false);
-                sdl = AudioSystem.getSourceDataLine(af);
-                final SourceDataLine finalSdl = sdl;
-                sdl.addLineListener(event -> { if (event.getType() == LineEvent.Type.STOP && finalSdl.isOpen()) finalSdl.close(); });
-                sdl.open(af); sdl.start();
-                int durationMs = 200;
-                int numSamples = (int) ((durationMs / 1000.0) * sampleRate);
-                byte[] buf = new byte[numSamples];
-                double startFreq = 350; double endFreq = 120; double sweepPower = 0.6; 
-                for (int i = 0; i < numSamples; i++) {
-                    double progress = (double) i / numSamples; 
-                    double currentFreq = startFreq - Math.pow(progress, sweepPower) * (startFreq - endFreq);
-                    double angle = (i / (sampleRate / currentFreq)) * 2.0 * Math.PI;
-                    double modulator = Math.sin(2 * Math.PI * progress * 12); 
-                    double sampleValue = Math.sin(angle + modulator * 0.08) * (1.0 - progress * 0.4); 
-                    double envelope;
-                    if (progress < 0.08) { envelope = progress / 0.08; } 
-                    else if (progress < 0.6) { envelope = 1.0 - (progress - 0.08) * 0.4; } 
-                    else { envelope = (1.0 - (progress - 0.6) / 0.4) * 0.6; }
-                    envelope = Math.max(0, Math.min(1, envelope));
-                    buf[i] = (byte) (sampleValue * 75 * envelope);
-                }
-                sdl.write(buf, 0, numSamples);
-            } catch (Exception e) { if (sdl != null && sdl.isOpen()) sdl.close(); }
-        });
+
+    // Turns the quality governor on or off; off keeps the current tier
+    public void setAudioGovernorEnabled(boolean enabled) {
+        audioMixer.getGovernor().setEnabled(enabled);
     }
-    public void playBoingSound() { 
-        audioExecutor.submit(() -> {
-            SourceDataLine sdl = null;
-            try {
-                float sampleRate = 44100; int bitsPerSample = 8;
-                AudioFormat af = new AudioFormat(sampleRate, bitsPerSample, 1, true, false);
-                sdl = AudioSystem.getSourceDataLine(af);
-                final SourceDataLine finalSdl = sdl;
-                sdl.addLineListener(event -> { if (event.getType() == LineEvent.Type.STOP && finalSdl.isOpen()) finalSdl.close(); });
-                sdl.open(af); sdl.start();
-                int durationMs = 250;
-                int numSamples = (int) ((durationMs / 1000.0) * sampleRate);
-                byte[] buf = new byte[numSamples];
-                double startFreq = 120; double peakFreq = 550; double endFreq = 120;   
-                for (int i = 0; i < numSamples; i++) {
-                    double progress = (double)i / numSamples; 
-                    double currentFreq;
-                    if (progress < 0.25) { currentFreq = startFreq + (peakFreq - startFreq) * (progress / 0.25); } 
-                    else { currentFreq = peakFreq - (peakFreq - endFreq) * ((progress - 0.25) / 0.75); }
-                    currentFreq = Math.max(20, currentFreq); 
-                    double angle = (i / (sampleRate / currentFreq)) * 2.0 * Math.PI;
-                    double sampleValue = 0.6 * Math.sin(angle) + 0.25 * Math.sin(1.9 * angle) + 0.15 * Math.sin(0.55 * angle + 0.1);
-                    double envelope;
-                    if (progress < 0.03) { envelope = progress / 0.03; } 
-                    else { envelope = Math.exp(-(progress - 0.03) * 9.0); }
-                    envelope = Math.max(0, Math.min(1, envelope));
-                    buf[i] = (byte) (sampleValue * 80 * envelope);
-                }
-                sdl.write(buf, 0, numSamples);
-            } catch (Exception e) { if (sdl != null && sdl.isOpen()) sdl.close(); }
-        });
+
+    // Trigger-to-output latency histograms per sound and pipeline stage.
+    // Also printed when audio shuts down.
+    public LatencyStats getAudioLatencyStats() {
+        return audioMixer.getLatencyStats();
     }
-    public void playHitSound() { 
-        audioExecutor.submit(() -> {
-            SourceDataLine sdl = null;
-            try {
-                float sampleRate = 44100; int bitsPerSample = 8;
-                AudioFormat af = new AudioFormat(sampleRate, bitsPerSample, 1, true, false);
-                sdl = AudioSystem.getSourceDataLine(af);
-                final SourceDataLine finalSdl = sdl;
-                sdl.addLineListener(event -> { if (event.getType() == LineEvent.Type.STOP && finalSdl.isOpen()) finalSdl.close(); });
-                sdl.open(af); sdl.start();
-                int durationMs = 180; 
-                int numSamples = (int) ((durationMs / 1000.0) * sampleRate);
-                byte[] buf = new byte[numSamples];
-                double baseFreq = 90; double noiseFactor = 0.4;
-                for (int i = 0; i < numSamples; i++) {
-                    double time = (double) i / sampleRate;
-                    double envelope = Math.exp(-time * 30.0); 
-                    double sineWave = Math.sin(2 * Math.PI * baseFreq * time * (1 + 0.3 * Math.sin(2 * Math.PI * 5 * time + 0.1)));
-                    double squareWaveIsh = (Math.sin(2 * Math.PI * baseFreq * 0.5 * time) > 0 ? 1 : -1) * 0.3; 
-                    double noise = (audioRandom.nextDouble() * 2.0 - 1.0) * noiseFactor;
-                    buf[i] = (byte) ((sineWave * (1 - noiseFactor - 0.1) + squareWaveIsh + noise) * 85 * envelope);
-                }
-                sdl.write(buf, 0, numSamples);
-            } catch (Exception e) { if (sdl != null && sdl.isOpen()) sdl.close(); }
-        });
+
+    // Returns a one-line summary of the chord cache hit/miss counters
+    public String getChordCacheStats() {
+        return chordCache.getStats();
     }
-    public void playDeathSound() { 
-        audioExecutor.submit(() -> {
-            SourceDataLine sdl = null;
-            try {
-                float sampleRate = 44100; int bitsPerSample = 8;
-                AudioFormat af = new AudioFormat(sampleRate, bitsPerSample, 1, true, false);
-                sdl = AudioSystem.getSourceDataLine(af);
-                final SourceDataLine finalSdl = sdl;
-                sdl.addLineListener(event -> { if (event.getType() == LineEvent.Type.STOP && finalSdl.isOpen()) finalSdl.close(); });
-                sdl.open(af); sdl.start();
-                int durationMs = 800;
-                int numSamples = (int) ((durationMs / 1000.0) * sampleRate);
-                byte[] buf = new byte[numSamples];
-                double startFreq = 700; double endFreq = 60;
-                double accumulatedPhase = 0; 
-
-                for (int i = 0; i < numSamples; i++) {
-                    double progress = (double) i / numSamples;
-                    double currentFreq = startFreq * Math.pow(endFreq / startFreq, progress * progress);
-                    
-                    accumulatedPhase += (currentFreq / sampleRate) * 2.0 * Math.PI;
-                    if (accumulatedPhase > 2.0 * Math.PI) accumulatedPhase -= 2.0 * Math.PI;
-                    
-                    double sampleValue = 0.4 * Math.sin(accumulatedPhase) 
-                                       + 0.2 * Math.sin(2 * accumulatedPhase + 0.5) 
-                                       + 0.15 * Math.sin(3 * accumulatedPhase + 1.0)
-                                       + 0.1 * (audioRandom.nextDouble() * 0.5 - 0.25); 
-                    double envelope = Math.pow(1.0 - progress, 0.75); 
-                    buf[i] = (byte) (sampleValue * 90 * envelope);
-                }
-                sdl.write(buf, 0, numSamples);
-            } catch (Exception e) { if (sdl != null && sdl.isOpen()) sdl.close(); }
-        });
+
+    // Where the mixer sends its output. Override to send it somewhere other than the
+    // sound card, e.g. a WavFileAudioBackend to record the game's audio as it plays;
+    // the mixer thread feeds a non-real-time backend at the sample rate. To render
+    // faster than real time, use AudioSession instead. Called from the constructor.
+    protected AudioBackend createAudioBackend() {
+        return new LineAudioBackend();
     }
-    public void shutdownAudio() { 
-        System.out.println("Shutting down audio executor...");
-        audioExecutor.shutdown();
-        try {
-            if (!audioExecutor.awaitTermination(1, TimeUnit.SECONDS)) { 
-                audioExecutor.shutdownNow();
-                if (!audioExecutor.awaitTermination(1, TimeUnit.SECONDS)) {
-                    System.err.println("Audio executor did not terminate.");
-                }
-            }
-        } catch (InterruptedException ie) {
-            audioExecutor.shutdownNow();
-            Thread.currentThread().interrupt();
+
+    // Safe to call more than once; also runs on exit
+    public synchronized void shutdownAudio() { 
+        if (audioShutDown) return;
+        audioShutDown = true;
+        System.out.println("Shutting down audio...");
+        audioMixer.shutdown();
+        chordCache.shutdown();
+        if (audioSession != null) {
+            audioSession.close();
+            audioSession = null;
         }
-        System.out.println("Audio executor shut down.");
+        System.out.println("Audio shut down.");
+        System.out.println(chordCache.getStats());
+        System.out.println(audioMixer.getGovernor().getStats());
+        System.out.print(audioMixer.getLatencyStats().report());
     }
 
     // Initialises and starts the game loop with the given framerate.
     public void gameLoop(int framerate) {
         initialised = true; // assume init has been called or won't be called
 
+        if (useSoftwareRenderer()) {
+            mRasterizer = new SoftwareRasterizer(softwareRenderThreads());
+        }
+
+        // The first frames draw the state init() left, until the first tick
+        mTickTime = System.nanoTime();
+        publishRenderState();
+        if (useSimulationThread()) {
+            startSimulationThread(framerate);
+        }
+
+        if (useActiveRendering()) {
+            startActiveLoop(framerate);
+            return;
+        }
+
         timer.setFramerate(framerate);
         timer.setRepeats(true);
 
@@ -744,6 +1007,175 @@ private final Random audioRandom = new Random(); // For sound effects (if not al
     Color yellow = Color.YELLOW;
     Color white = Color.WHITE;
 
+    // The draw functions below reuse these instead of allocating per call; a frame
+    // makes thousands of them. Only one thread paints at a time.
+    private final Line2D.Double mLine = new Line2D.Double();
+    private final Rectangle2D.Double mRectangle = new Rectangle2D.Double();
+    private final ReusableEllipse mEllipse = new ReusableEllipse();
+    private final ReusablePolygon mPolygon = new ReusablePolygon();
+    private final BasicStroke mDefaultStroke = new BasicStroke(1.0f);
+
+    // Strokes of other widths, most recently created last; widths cycle through few values
+    private static final int STROKE_CACHE_SIZE = 8;
+    private final BasicStroke[] mStrokes = new BasicStroke[STROKE_CACHE_SIZE];
+    private int mNextStroke = 0;
+
+    private BasicStroke strokeOfWidth(double l) {
+        float width = (float)l;
+        if (width == 1.0f) return mDefaultStroke;
+        for (BasicStroke stroke : mStrokes) {
+            if (stroke != null && stroke.getLineWidth() == width) return stroke;
+        }
+        BasicStroke stroke = new BasicStroke(width);
+        mStrokes[mNextStroke] = stroke;
+        mNextStroke = (mNextStroke + 1) % STROKE_CACHE_SIZE;
+        return stroke;
+    }
+
+    // Opaque colors from changeColor(r,g,b), direct-mapped on the packed RGB value
+    private final Color[] mColors = new Color[256];
+
+    private Color opaqueColor(int red, int green, int blue) {
+        int rgb = (red << 16) | (green << 8) | blue;
+        int slot = (rgb ^ (rgb >>> 8) ^ (rgb >>> 16)) & 0xFF;
+        Color color = mColors[slot];
+        if (color == null || (color.getRGB() & 0xFFFFFF) != rgb) {
+            color = new Color(rgb);
+            mColors[slot] = color;
+        }
+        return color;
+    }
+
+    // Last font used by drawText/drawBoldText, reused while the text style stays the same
+    private Font mFont;
+
+    private Font font(String name, int style, int size) {
+        if (mFont == null || mFont.getSize() != size || mFont.getStyle() != style || !mFont.getName().equals(name)) {
+            mFont = new Font(name, style, size);
+        }
+        return mFont;
+    }
+
+    // An ellipse that is its own path iterator. Java2D asks a shape for a fresh
+    // iterator every time it is drawn, and Ellipse2D allocates one per call; this
+    // rewinds instead. Fine as long as one shape is only iterated once at a time,
+    // which is how fill() and draw() use it. Same curves as Ellipse2D's iterator.
+    static class ReusableEllipse extends Ellipse2D.Double implements PathIterator {
+        private static final long serialVersionUID = 1L;
+        private static final double CV = 0.5522847498307933; // 4/3 * (sqrt(2) - 1)
+        private static final double PCV = 0.5 + CV * 0.5;
+        private static final double NCV = 0.5 - CV * 0.5;
+        // Unit-square control points of the four quarter arcs, counter-clockwise from (1, 0.5)
+        private static final double[][] CURVES = {
+            { 1.0, PCV, PCV, 1.0, 0.5, 1.0 },
+            { NCV, 1.0, 0.0, PCV, 0.0, 0.5 },
+            { 0.0, NCV, NCV, 0.0, 0.5, 0.0 },
+            { PCV, 0.0, 1.0, NCV, 1.0, 0.5 }
+        };
+
+        private AffineTransform transform;
+        private int index;
+
+        @Override
+        public PathIterator getPathIterator(AffineTransform at) {
+            transform = at;
+            index = (width < 0 || height < 0) ? 6 : 0;
+            return this;
+        }
+
+        public int getWindingRule() {
+            return WIND_NON_ZERO;
+        }
+
+        public boolean isDone() {
+            return index > 5;
+        }
+
+        public void next() {
+            index++;
+        }
+
+        public int currentSegment(double[] coords) {
+            if (index == 5) return SEG_CLOSE;
+            double[] curve = CURVES[(index == 0) ? 3 : index - 1];
+            int first = (index == 0) ? 4 : 0;
+            int points = 0;
+            for (int i = first; i < 6; i += 2) {
+                coords[points * 2] = x + curve[i] * width;
+                coords[points * 2 + 1] = y + curve[i + 1] * height;
+                points++;
+            }
+            if (transform != null) transform.transform(coords, 0, coords, 0, points);
+            return (index == 0) ? SEG_MOVETO : SEG_CUBICTO;
+        }
+
+        public int currentSegment(float[] coords) {
+            if (index == 5) return SEG_CLOSE;
+            double[] curve = CURVES[(index == 0) ? 3 : index - 1];
+            int first = (index == 0) ? 4 : 0;
+            int points = 0;
+            for (int i = first; i < 6; i += 2) {
+                coords[points * 2] = (float)(x + curve[i] * width);
+                coords[points * 2 + 1] = (float)(y + curve[i + 1] * height);
+                points++;
+            }
+            if (transform != null) transform.transform(coords, 0, coords, 0, points);
+            return (index == 0) ? SEG_MOVETO : SEG_CUBICTO;
+        }
+    }
+
+    // A polygon that is its own path iterator, for the same reason: antialiased
+    // fillPolygon() wraps the points in a new Polygon, which then allocates an
+    // iterator. set() shares the caller's arrays rather than copying them, so they
+    // must not change until the polygon has been drawn.
+    static class ReusablePolygon extends Polygon implements PathIterator {
+        private static final long serialVersionUID = 1L;
+        private AffineTransform transform;
+        private int index;
+
+        void set(int[] xs, int[] ys, int n) {
+            xpoints = xs;
+            ypoints = ys;
+            npoints = n;
+            invalidate();
+        }
+
+        @Override
+        public PathIterator getPathIterator(AffineTransform at) {
+            transform = at;
+            index = (npoints == 0) ? 1 : 0;
+            return this;
+        }
+
+        public int getWindingRule() {
+            return WIND_EVEN_ODD;
+        }
+
+        public boolean isDone() {
+            return index > npoints;
+        }
+
+        public void next() {
+            index++;
+        }
+
+        public int currentSegment(double[] coords) {
+            if (index == npoints) return SEG_CLOSE;
+            coords[0] = xpoints[index];
+            coords[1] = ypoints[index];
+            if (transform != null) transform.transform(coords, 0, coords, 0, 1);
+            return (index == 0) ? SEG_MOVETO : SEG_LINETO;
+        }
+
+        public int currentSegment(float[] coords) {
+            if (index == npoints) return SEG_CLOSE;
+            coords[0] = xpoints[index];
+            coords[1] = ypoints[index];
+            if (transform != null) transform.transform(coords, 0, coords, 0, 1);
+            return (index == 0) ? SEG_MOVETO : SEG_LINETO;
+        }
+    }
+
     // Changes the background Color to the color c
     public void changeBackgroundColor(Color c) {
         // Set background colour
@@ -763,17 +1195,113 @@ private final Random audioRandom = new Random(); // For sound effects (if not al
         if(blue > 255) {blue = 255;}
 
         // Set background colour
-        mGraphics.setBackground(new Color(red,green,blue));
+        mGraphics.setBackground(opaqueColor(red,green,blue));
     }
 
     // Clears the background, makes the whole window whatever the background color is
     public void clearBackground(int width, int height) {
+        flushDeferredDraws();
         // Clear background
         mGraphics.clearRect(0, 0, width, height);
     }
 
+    //-------------------------------------------------------
+    // Batched Drawing
+    //-------------------------------------------------------
+    // Between beginBatch() and endBatch(), drawSolidRectangle, drawSolidCircle and
+    // three-point drawSolidPolygon calls are recorded instead of drawn, then drawn
+    // together by layer and colour (see RenderQueue). Tag each part with setDrawLayer
+    // wherever the draw order matters. Any other draw call, and any transform change
+    // except saving one, draws what is recorded so far first, so mixing them stays
+    // correct. It just batches less. Code that uses mGraphics directly must call
+    // endBatch() first. The batch ends by itself when paintComponent() returns.
+    private final RenderQueue mRenderQueue = new RenderQueue();
+    private boolean mBatching = false;
+    private int mDrawLayer = 0;
+    private Color mBatchColor;
+
+    // Graphics2D calls during the last frame: those the batched draws asked for, and those actually made
+    private volatile int mLastRecordedFills = 0;
+    private volatile int mLastRecordedColorChanges = 0;
+    private volatile int mLastDrawnFills = 0;
+    private volatile int mLastDrawnColorChanges = 0;
+
+    public void beginBatch() {
+        if (mBatching || mRasterizing) return;
+        mBatching = true;
+        mDrawLayer = 0;
+        mBatchColor = mGraphics.getColor();
+    }
+
+    public void endBatch() {
+        if (mRasterizing) mRasterizer.flush();
+        if (!mBatching) return;
+        flushBatch();
+        mBatching = false;
+    }
+
+    // Sets the layer of the draws that follow in this batch (0 to RenderQueue.MAX_LAYER)
+    public void setDrawLayer(int layer) {
+        mDrawLayer = Math.max(0, Math.min(RenderQueue.MAX_LAYER, layer));
+    }
+
+    // Draws what is batched or queued for the software renderer so far, before a
+    // draw that can't be deferred. Transform changes only need to flush the batch:
+    // the software renderer's queue holds coordinates already transformed.
+    private void flushDeferredDraws() {
+        if (mBatching) flushBatch();
+        if (mRasterizing) mRasterizer.flush();
+    }
+
+    // Draws what the batch has recorded so far; the batch carries on
+    private void flushBatch() {
+        mRenderQueue.flush(mGraphics);
+        mGraphics.setColor(mBatchColor);
+    }
+
+    // e.g. "batched draws last frame: 208 fills, 206 colour changes -> 208 fills, 121 colour changes"
+    public String getBatchStats() {
+        return "batched draws last frame: " + mLastRecordedFills + " fills, " + mLastRecordedColorChanges
+                + " colour changes -> " + mLastDrawnFills + " fills, " + mLastDrawnColorChanges + " colour changes";
+    }
+
+    //-------------------------------------------------------
+    // Drawing Into Images
+    //-------------------------------------------------------
+    // Points the draw functions at another surface, such as an image being baked,
+    // until endDrawingInto(). The window's batch is paused, not flushed, and
+    // carries on afterwards. These two calls don't nest.
+    private Graphics2D mWindowGraphics;
+    private boolean mWindowBatching;
+    private boolean mWindowRasterizing;
+    private final AffineTransform mWindowTransform = new AffineTransform();
+
+    void beginDrawingInto(Graphics2D g) {
+        mWindowGraphics = mGraphics;
+        mWindowBatching = mBatching;
+        mWindowRasterizing = mRasterizing;
+        mWindowTransform.setTransform(mCurrentTransform);
+        mGraphics = g;
+        mBatching = false;
+        mRasterizing = false;
+        mCurrentTransform.setTransform(g.getTransform());
+    }
+
+    void endDrawingInto() {
+        mGraphics = mWindowGraphics;
+        mBatching = mWindowBatching;
+        mRasterizing = mWindowRasterizing;
+        mCurrentTransform.setTransform(mWindowTransform);
+        mWindowGraphics = null;
+    }
+
     // Changes the drawing Color to the color c
     public void changeColor(Color c) {
+        if (mBatching) {
+            mBatchColor = c;
+            mRenderQueue.recordedColorChanges++;
+            return;
+        }
         // Set colour
         mGraphics.setColor(c);
     }
@@ -791,104 +1319,140 @@ private final Random audioRandom = new Random(); // For sound effects (if not al
         if(blue > 255) {blue = 255;}
 
         // Set colour
-        mGraphics.setColor(new Color(red,green,blue));
+        changeColor(opaqueColor(red,green,blue));
     }
 
     // Draws a line from (x1,y2) to (x2,y2)
     void drawLine(double x1, double y1, double x2, double y2) {
+        flushDeferredDraws();
         // Draw a Line
-        mGraphics.draw(new Line2D.Double(x1, y1, x2, y2));
+        mLine.setLine(x1, y1, x2, y2);
+        mGraphics.draw(mLine);
     }
 
     // Draws a line from (x1,y2) to (x2,y2) with width l
     void drawLine(double x1, double y1, double x2, double y2, double l) {
+        flushDeferredDraws();
         // Set the stroke
-        mGraphics.setStroke(new BasicStroke((float)l));
+        mGraphics.setStroke(strokeOfWidth(l));
 
         // Draw a Line
-        mGraphics.draw(new Line2D.Double(x1, y1, x2, y2));
+        mLine.setLine(x1, y1, x2, y2);
+        mGraphics.draw(mLine);
 
         // Reset the stroke
-        mGraphics.setStroke(new BasicStroke(1.0f));
+        mGraphics.setStroke(mDefaultStroke);
     }
 
     // This function draws a rectangle at (x,y) with width and height (w,h)
     void drawRectangle(double x, double y, double w, double h) {
+        flushDeferredDraws();
         // Draw a Rectangle
-        mGraphics.draw(new Rectangle2D.Double(x, y, w, h));
+        mRectangle.setRect(x, y, w, h);
+        mGraphics.draw(mRectangle);
     }
 
     // This function draws a rectangle at (x,y) with width and height (w,h)
     // with a line of width l
     void drawRectangle(double x, double y, double w, double h, double l) {
+        flushDeferredDraws();
         // Set the stroke
-        mGraphics.setStroke(new BasicStroke((float)l));
+        mGraphics.setStroke(strokeOfWidth(l));
 
         // Draw a Rectangle
-        mGraphics.draw(new Rectangle2D.Double(x, y, w, h));
+        mRectangle.setRect(x, y, w, h);
+        mGraphics.draw(mRectangle);
 
         // Reset the stroke
-        mGraphics.setStroke(new BasicStroke(1.0f));
+        mGraphics.setStroke(mDefaultStroke);
     }
 
     // This function fills in a rectangle at (x,y) with width and height (w,h)
     void drawSolidRectangle(double x, double y, double w, double h) {
+        if (mBatching) {
+            if (mRenderQueue.isFull()) flushBatch();
+            mRenderQueue.fillRect(mDrawLayer, mBatchColor, x, y, w, h);
+            return;
+        }
+        if (canRasterize()) {
+            mRasterizer.fillRect(x + mCurrentTransform.getTranslateX(), y + mCurrentTransform.getTranslateY(), w, h, mRasterColor);
+            return;
+        }
         // Fill a Rectangle
-        mGraphics.fill(new Rectangle2D.Double(x, y, w, h));
+        mRectangle.setRect(x, y, w, h);
+        mGraphics.fill(mRectangle);
     }
 
     // This function draws a circle at (x,y) with radius
     void drawCircle(double x, double y, double radius) {
+        flushDeferredDraws();
         // Draw a Circle
-        mGraphics.draw(new Ellipse2D.Double(x-radius, y-radius, radius*2, radius*2));
+        mEllipse.setFrame(x-radius, y-radius, radius*2, radius*2);
+        mGraphics.draw(mEllipse);
     }
 
     // This function draws a circle at (x,y) with radius
     // with a line of width l
     void drawCircle(double x, double y, double radius, double l) {
+        flushDeferredDraws();
         // Set the stroke
-        mGraphics.setStroke(new BasicStroke((float)l));
+        mGraphics.setStroke(strokeOfWidth(l));
 
         // Draw a Circle
-        mGraphics.draw(new Ellipse2D.Double(x-radius, y-radius, radius*2, radius*2));
+        mEllipse.setFrame(x-radius, y-radius, radius*2, radius*2);
+        mGraphics.draw(mEllipse);
 
         // Reset the stroke
-        mGraphics.setStroke(new BasicStroke(1.0f));
+        mGraphics.setStroke(mDefaultStroke);
     }
 
     // This function draws a circle at (x,y) with radius
     void drawSolidCircle(double x, double y, double radius) {
+        if (mBatching) {
+            if (mRenderQueue.isFull()) flushBatch();
+            mRenderQueue.fillCircle(mDrawLayer, mBatchColor, x, y, radius);
+            return;
+        }
+        if (canRasterize()) {
+            mRasterizer.fillCircle(x + mCurrentTransform.getTranslateX(), y + mCurrentTransform.getTranslateY(), radius, mRasterColor);
+            return;
+        }
         // Fill a Circle
-        mGraphics.fill(new Ellipse2D.Double(x-radius, y-radius, radius*2, radius*2));
+        mEllipse.setFrame(x-radius, y-radius, radius*2, radius*2);
+        mGraphics.fill(mEllipse);
     }
 
     // This function draws text on the screen at (x,y)
     public void drawText(double x, double y, String s) {
+        flushDeferredDraws();
         // Draw text on the screen
-        mGraphics.setFont(new Font("Arial", Font.PLAIN, 40));
+        mGraphics.setFont(font("Arial", Font.PLAIN, 40));
         mGraphics.drawString(s, (int)x, (int)y);
     }
 
     // This function draws bold text on the screen at (x,y)
     public void drawBoldText(double x, double y, String s) {
+        flushDeferredDraws();
         // Draw text on the screen
-        mGraphics.setFont(new Font("Arial", Font.BOLD, 40));
+        mGraphics.setFont(font("Arial", Font.BOLD, 40));
         mGraphics.drawString(s, (int)x, (int)y);
     }
 
     // This function draws text on the screen at (x,y)
     // with Font (font,size)
     public void drawText(double x, double y, String s, String font, int size) {
+        flushDeferredDraws();
         // Draw text on the screen
-        mGraphics.setFont(new Font(font, Font.PLAIN, size));
+        mGraphics.setFont(font(font, Font.PLAIN, size));
         mGraphics.drawString(s, (int)x, (int)y);
     }
 
     // This function draws bold text on the screen at (x,y)
     // with Font (font,size)
     public void drawBoldText(double x, double y, String s, String font, int size) {
+        flushDeferredDraws();
         // Draw text on the screen
-        mGraphics.setFont(new Font(font, Font.BOLD, size));
+        mGraphics.setFont(font(font, Font.BOLD, size));
         mGraphics.drawString(s, (int)x, (int)y);
     }
 
@@ -937,6 +1501,7 @@ private final Random audioRandom = new Random(); // For sound effects (if not al
 
     // Draws an image on the screen at position (x,y)
     public void drawImage(Image image, double x, double y) {
+        flushDeferredDraws();
         // Check if image is null
         if(image == null) {
             // Print Error message
@@ -950,6 +1515,7 @@ private final Random audioRandom = new Random(); // For sound effects (if not al
 
     // Draws an image on the screen at position (x,y)
     public void drawImage(Image image, double x, double y, double w, double h) {
+        flushDeferredDraws();
         // Check if image is null
         if(image == null) {
             // Print Error message
@@ -960,53 +1526,91 @@ private final Random audioRandom = new Random(); // For sound effects (if not al
         mGraphics.drawImage(image, (int)x, (int)y, (int)w, (int)h, null);
     }
 
+    // Draws the w by h region of image starting at (sx,sy), e.g. one sprite of an
+    // atlas, on the screen at position (x,y)
+    public void drawImage(Image image, double x, double y, int sx, int sy, int w, int h) {
+        flushDeferredDraws();
+        // Check if image is null
+        if(image == null) {
+            // Print Error message
+            System.out.println("Error: cannot draw null image.\n");
+            return;
+        }
+        // Draw the region on screen at (x,y)
+        int dx = (int)x, dy = (int)y;
+        mGraphics.drawImage(image, dx, dy, dx + w, dy + h, sx, sy, sx + w, sy + h, null);
+    }
+
     //-------------------------------------------------------
     // Transform Functions
     //-------------------------------------------------------
 
-    // Stack of transforms
-    Stack<AffineTransform> mTransforms;
+    // Stack of transforms, preallocated; saving copies into the next slot.
+    // Slot 0 holds the frame's starting transform.
+    static final int MAX_TRANSFORM_DEPTH = 32;
+    final AffineTransform[] mTransforms = new AffineTransform[MAX_TRANSFORM_DEPTH];
+    int mTransformCount = 0;
+
+    // Copy of mGraphics' transform, kept in step by the functions below because
+    // Graphics2D.getTransform() allocates. Change the transform through them only.
+    private final AffineTransform mCurrentTransform = new AffineTransform();
 
     // Save the current transform
     public void saveCurrentTransform() {
+        if (mTransformCount == MAX_TRANSFORM_DEPTH) {
+            System.err.println("Error: transform stack is full, saveCurrentTransform ignored.");
+            return;
+        }
         // Push transform onto the stack
-        mTransforms.push(mGraphics.getTransform());
+        mTransforms[mTransformCount++].setTransform(mCurrentTransform);
     }
 
     // Restores the last transform
     public void restoreLastTransform() {
+        if (mTransformCount == 0) return;
+        if (mBatching) flushBatch();
+
         // Set current transform to the top of the stack.
-        mGraphics.setTransform(mTransforms.peek());
+        mCurrentTransform.setTransform(mTransforms[mTransformCount - 1]);
+        mGraphics.setTransform(mCurrentTransform);
 
         // If there is more than one transform on the stack
-        if(mTransforms.size() > 1) {
+        if(mTransformCount > 1) {
             // Pop a transform off the stack
-            mTransforms.pop();
+            mTransformCount--;
         }
     }
 
     // This function translates the drawing context by (x,y)
     void translate(double x, double y) {
+        if (mBatching) flushBatch();
         // Translate the drawing context
         mGraphics.translate(x,y);
+        mCurrentTransform.translate(x, y);
     }
 
     // This function rotates the drawing context by a degrees
     void rotate(double a) {
+        if (mBatching) flushBatch();
         // Rotate the drawing context
         mGraphics.rotate(Math.toRadians(a));
+        mCurrentTransform.rotate(Math.toRadians(a));
     }
 
     // This function scales the drawing context by (x,y)
     void scale(double x, double y) {
+        if (mBatching) flushBatch();
         // Scale the drawing context
         mGraphics.scale(x, y);
+        mCurrentTransform.scale(x, y);
     }
 
     // This function shears the drawing context by (x,y)
     void shear(double x, double y) {
+        if (mBatching) flushBatch();
         // Shear the drawing context
         mGraphics.shear(x, y);
+        mCurrentTransform.shear(x, y);
     }
 
     //-------------------------------------------------------
@@ -1027,6 +1631,12 @@ private final Random audioRandom = new Random(); // For sound effects (if not al
         // Loop Clip
         Clip mLoopClip;
 
+        // Open Clips reused by playAudio, so repeated plays never open a new line
+        static final int MAX_PLAY_CLIPS = 4;
+        Clip[] mPlayClips = new Clip[MAX_PLAY_CLIPS];
+        long[] mPlayEndTimes = new long[MAX_PLAY_CLIPS]; // System.nanoTime() each Clip finishes
+        int mPlayClipCount = 0;
+
         public Clip getLoopClip() {
             // return mLoopClip
             return mLoopClip;
@@ -1052,6 +1662,14 @@ private final Random audioRandom = new Random(); // For sound effects (if not al
             return mLength;
         }
 
+        // For subclasses that supply their samples some other way, e.g. StreamingAudioClip
+        protected AudioClip(AudioFormat format, long length) {
+            mFormat = format;
+            mLength = length;
+            mData = null;
+            mLoopClip = null;
+        }
+
         public AudioClip(AudioInputStream stream) {
             // Get Format
             mFormat = stream.getFormat();
@@ -1077,6 +1695,39 @@ private final Random audioRandom = new Random(); // For sound effects (if not al
             mLoopClip = null;
         }
 
+        // Returns a pooled Clip to play this sound on, ready to start from the beginning.
+        // Uses an idle Clip if there is one, opens another up to MAX_PLAY_CLIPS,
+        // and otherwise restarts the Clip that is closest to finishing.
+        synchronized Clip acquirePlayClip() throws LineUnavailableException {
+            long now = System.nanoTime();
+            int chosen = -1;
+            for (int i = 0; i < mPlayClipCount; i++) {
+                if (mPlayEndTimes[i] <= now) { chosen = i; break; }
+            }
+
+            if (chosen < 0 && mPlayClipCount < MAX_PLAY_CLIPS) {
+                // Open a new Clip with this sound's data
+                Clip clip = AudioSystem.getClip();
+                clip.open(mFormat, mData, 0, (int)mLength);
+                chosen = mPlayClipCount++;
+                mPlayClips[chosen] = clip;
+            }
+
+            if (chosen < 0) {
+                // All Clips busy, steal the one closest to finishing
+                chosen = 0;
+                for (int i = 1; i < mPlayClipCount; i++) {
+                    if (mPlayEndTimes[i] < mPlayEndTimes[chosen]) chosen = i;
+                }
+            }
+
+            Clip clip = mPlayClips[chosen];
+            clip.stop();
+            clip.setFramePosition(0);
+            mPlayEndTimes[chosen] = now + clip.getMicrosecondLength() * 1000;
+            return clip;
+        }
+
         public void setLoopVolume(float volume) {
             try {
                 // Create Controls
@@ -1089,20 +1740,53 @@ private final Random audioRandom = new Random(); // For sound effects (if not al
         }
     }
 
-    // Loads the AudioClip stored in the file specified by filename
+    // Files that decode to more than this are streamed instead of loaded into memory
+    static final long STREAMING_THRESHOLD_BYTES = 2 * 1024 * 1024;
+
+    // AudioClips already loaded, by canonical file path, so no file is decoded twice
+    private static final HashMap<String, AudioClip> mLoadedAudio = new HashMap<String, AudioClip>();
+
+    // Loads the AudioClip stored in the file specified by filename.
+    // Loading the same file again returns the same AudioClip.
     public static AudioClip loadAudio(String filename) {
         try {
             // Open File
             File file = new File(filename);
 
+            // Return the cached clip if this file was loaded before
+            String key = file.getCanonicalPath();
+            synchronized (mLoadedAudio) {
+                AudioClip loaded = mLoadedAudio.get(key);
+                if (loaded != null) {
+                    return loaded;
+                }
+            }
+
             // Open Audio Input Stream
             AudioInputStream audio = AudioSystem.getAudioInputStream(file);
 
-            // Create Audio Clip
-            AudioClip clip = new AudioClip(audio);
+            // Create Audio Clip; long files are streamed from disk when played
+            AudioClip clip;
+            if (audio.getFrameLength() == AudioSystem.NOT_SPECIFIED) {
+                clip = new StreamingAudioClip(file, audio.getFormat(), StreamingAudioClip.UNKNOWN_LENGTH);
+                audio.close();
+            } else if (audio.getFrameLength() * audio.getFormat().getFrameSize() > STREAMING_THRESHOLD_BYTES) {
+                clip = new StreamingAudioClip(file, audio.getFormat(), audio.getFrameLength() * audio.getFormat().getFrameSize());
+                audio.close();
+            } else {
+                clip = new AudioClip(audio);
+
+                // Fix pauses and mixer issues when clip is first played
+                playAudio(clip,-60);
+            }
 
-            // Fix pauses and mixer issues when clip is first played
-            playAudio(clip,-60);
+            // Remember the clip; if another thread loaded the same file meanwhile, use its copy
+            synchronized (mLoadedAudio) {
+                AudioClip loaded = mLoadedAudio.putIfAbsent(key, clip);
+                if (loaded != null) {
+                    return loaded;
+                }
+            }
 
             // Return Audio Clip
             return clip;
@@ -1126,19 +1810,19 @@ private final Random audioRandom = new Random(); // For sound effects (if not al
             return false;
         }
 
+        // Streamed clips play on their own line
+        if(audioClip instanceof StreamingAudioClip) {
+            return ((StreamingAudioClip)audioClip).start(false, 0.0f);
+        }
+
         try {
-            // Create a Clip
-            Clip clip = AudioSystem.getClip();
-            clip.addLineListener(new LineListener() {
-                @Override
-                public void update(LineEvent event) {
-                    if(event.getType().equals(LineEvent.Type.STOP)) {
-                        clip.close();
-                    }
-                }
-            });
-            // Load data
-            clip.open(audioClip.getAudioFormat(), audioClip.getData(), 0, (int)audioClip.getBufferSize());
+            // Get a pooled Clip
+            Clip clip = audioClip.acquirePlayClip();
+
+            // Reset any volume a previous play set
+            if (clip.isControlSupported(FloatControl.Type.MASTER_GAIN)) {
+                ((FloatControl)clip.getControl(FloatControl.Type.MASTER_GAIN)).setValue(0.0f);
+            }
 
             // Play Clip
             clip.start();
@@ -1162,19 +1846,14 @@ private final Random audioRandom = new Random(); // For sound effects (if not al
             return false;
         }
 
+        // Streamed clips play on their own line
+        if(audioClip instanceof StreamingAudioClip) {
+            return ((StreamingAudioClip)audioClip).start(false, volume);
+        }
+
         try {
-            // Create a Clip
-            Clip clip = AudioSystem.getClip();
-            clip.addLineListener(new LineListener() {
-                @Override
-                public void update(LineEvent event) {
-                    if(event.getType().equals(LineEvent.Type.STOP)) {
-                        clip.close();
-                    }
-                }
-            });
-            // Load data
-            clip.open(audioClip.getAudioFormat(), audioClip.getData(), 0, (int)audioClip.getBufferSize());
+            // Get a pooled Clip
+            Clip clip = audioClip.acquirePlayClip();
 
             // Create Controls
             FloatControl control = (FloatControl)clip.getControl(FloatControl.Type.MASTER_GAIN);
@@ -1205,6 +1884,11 @@ private final Random audioRandom = new Random(); // For sound effects (if not al
             return false;
         }
 
+        // Streamed clips loop by re-reading their file
+        if(audioClip instanceof StreamingAudioClip) {
+            return ((StreamingAudioClip)audioClip).start(true, 0.0f);
+        }
+
         // Get Loop Clip
         Clip clip = audioClip.getLoopClip();
 
@@ -1248,6 +1932,12 @@ private final Random audioRandom = new Random(); // For sound effects (if not al
 
     // Stops an AudioClip playing
     public static void stopAudioLoop(AudioClip audioClip) {
+        // Stop a streamed clip
+        if(audioClip instanceof StreamingAudioClip) {
+            ((StreamingAudioClip)audioClip).stop();
+            return;
+        }
+
         // Get Loop Clip
         Clip clip = audioClip.getLoopClip();
 
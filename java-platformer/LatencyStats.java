@@ -0,0 +1,102 @@
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Per-sound, per-stage latency histograms for the audio pipeline.
+// Stages, all measured from System.nanoTime():
+//   QUEUE  - game thread trigger until the mixer drains the command ring
+//   SYNTH  - drained until the first block containing the sound is mixed,
+//            including any wait for the beat grid
+//   WRITE  - mixed until that block has been handed to the backend
+//   OUTPUT - audio already queued in the driver ahead of the block (estimated)
+//   TOTAL  - trigger until the sound's first sample leaves the driver buffer
+// Buckets are log-scaled with 8 steps per power of two (~9% resolution), so
+// recording is one array increment and never allocates. Written by the mixer
+// thread; may be read from any thread.
+class LatencyStats {
+    static final int QUEUE = 0;
+    static final int SYNTH = 1;
+    static final int WRITE = 2;
+    static final int OUTPUT = 3;
+    static final int TOTAL = 4;
+    static final int NUM_STAGES = 5;
+
+    private static final String[] STAGE_NAMES = { "queue", "synth", "write", "output", "total" };
+
+    private static final int SUB_BUCKETS = 8;
+    private static final int NUM_BUCKETS = 36 * SUB_BUCKETS; // Up to ~2^37 ns (over a minute)
+
+    private final AtomicLongArray counts = new AtomicLongArray(SoundId.COUNT * NUM_STAGES * NUM_BUCKETS);
+
+    static int bucketFor(long nanos) {
+        if (nanos < SUB_BUCKETS) return (int) Math.max(0, nanos);
+        int exponent = 63 - Long.numberOfLeadingZeros(nanos);
+        int sub = (int) (nanos >>> (exponent - 3)) & (SUB_BUCKETS - 1);
+        return Math.min(NUM_BUCKETS - 1, (exponent - 2) * SUB_BUCKETS + sub);
+    }
+
+    // Smallest value that falls into the bucket
+    static long bucketLowerBound(int bucket) {
+        if (bucket < SUB_BUCKETS) return bucket;
+        int exponent = bucket / SUB_BUCKETS + 2;
+        int sub = bucket % SUB_BUCKETS;
+        return (long) (SUB_BUCKETS + sub) << (exponent - 3);
+    }
+
+    private int offset(int soundId, int stage) {
+        return (soundId * NUM_STAGES + stage) * NUM_BUCKETS;
+    }
+
+    public void record(int soundId, int stage, long nanos) {
+        if (soundId < 0 || soundId >= SoundId.COUNT) return;
+        counts.incrementAndGet(offset(soundId, stage) + bucketFor(nanos));
+    }
+
+    public long getCount(int soundId, int stage) {
+        int base = offset(soundId, stage);
+        long total = 0;
+        for (int b = 0; b < NUM_BUCKETS; b++) {
+            total += counts.get(base + b);
+        }
+        return total;
+    }
+
+    // Returns the latency below which the given fraction (0..1) of samples fall,
+    // as the midpoint of its bucket, or -1 if nothing was recorded
+    public long getPercentileNanos(int soundId, int stage, double fraction) {
+        long total = getCount(soundId, stage);
+        if (total == 0) return -1;
+        long target = Math.max(1, (long) Math.ceil(fraction * total));
+        int base = offset(soundId, stage);
+        long seen = 0;
+        for (int b = 0; b < NUM_BUCKETS; b++) {
+            seen += counts.get(base + b);
+            if (seen >= target) {
+                return (bucketLowerBound(b) + bucketLowerBound(b + 1)) / 2;
+            }
+        }
+        return bucketLowerBound(NUM_BUCKETS - 1);
+    }
+
+    public void reset() {
+        for (int i = 0; i < counts.length(); i++) {
+            counts.set(i, 0);
+        }
+    }
+
+    // Multi-line table of p50/p95/p99 in milliseconds for every sound that has played
+    public String report() {
+        StringBuilder sb = new StringBuilder("Audio latency (ms, p50/p95/p99):\n");
+        for (int soundId = 0; soundId < SoundId.COUNT; soundId++) {
+            long n = getCount(soundId, TOTAL);
+            if (n == 0) continue;
+            sb.append(String.format("  %-15s n=%-6d", SoundId.name(soundId), n));
+            for (int stage = 0; stage < NUM_STAGES; stage++) {
+                sb.append(String.format(" %s %.2f/%.2f/%.2f", STAGE_NAMES[stage],
+                        getPercentileNanos(soundId, stage, 0.50) / 1e6,
+                        getPercentileNanos(soundId, stage, 0.95) / 1e6,
+                        getPercentileNanos(soundId, stage, 0.99) / 1e6));
+            }
+            sb.append('\n');
+        }
+        return sb.toString();
+    }
+}
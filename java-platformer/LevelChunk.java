@@ -3,6 +3,9 @@ class LevelChunk {
     PowerUp[] powerUps;     
     double chunkWidth;      
     public double startWorldX; // Absolute starting X-coordinate of this chunk in the world
+    // Landing chords PlatformerGame pinned for this chunk, released exactly as pinned
+    double[] pinnedToneFrequencies;
+    int[] pinnedToneDurationsMs;
 
     public LevelChunk(Platform[] platforms, PowerUp[] powerUps, double chunkWidth, double startWorldX) {
         this.platforms = platforms;
@@ -13,11 +16,19 @@ class LevelChunk {
 
     // Draw method now uses its own startWorldX
     public void draw(GameEngine ge, double cameraX) { 
-        for (Platform p : platforms) {
-            // p.x is relative to the chunk's start
-            double platformScreenX = this.startWorldX + p.x - cameraX;
-            if (platformScreenX + p.width > 0 && platformScreenX < ge.width()) {
-                 p.draw(ge, this.startWorldX, cameraX); // Pass chunk's world start X to platform draw
+        draw(ge, cameraX, null);
+    }
+
+    // Platforms are blitted from stripCache's baked images when one is given and
+    // it finds them worthwhile here
+    public void draw(GameEngine ge, double cameraX, ChunkStripCache stripCache) {
+        if (stripCache == null || !stripCache.draw(ge, this, cameraX)) {
+            for (Platform p : platforms) {
+                // p.x is relative to the chunk's start
+                double platformScreenX = this.startWorldX + p.x - cameraX;
+                if (platformScreenX + p.width > 0 && platformScreenX < ge.width()) {
+                     p.draw(ge, this.startWorldX, cameraX); // Pass chunk's world start X to platform draw
+                }
             }
         }
 
@@ -0,0 +1,47 @@
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.LineUnavailableException;
+import javax.sound.sampled.SourceDataLine;
+
+// Plays mixer output through a SourceDataLine. Its blocking write paces the mixer in real time.
+class LineAudioBackend implements AudioBackend {
+    private SourceDataLine line;
+
+    @Override
+    public boolean open(AudioFormat format, int bufferBytes) {
+        try {
+            line = AudioSystem.getSourceDataLine(format);
+            line.open(format, bufferBytes);
+            line.start();
+            return true;
+        } catch (LineUnavailableException | IllegalArgumentException e) {
+            System.err.println("Audio mixer could not open an output line: " + e.getMessage());
+            line = null;
+            return false;
+        }
+    }
+
+    @Override
+    public void write(byte[] data, int length) {
+        line.write(data, 0, length);
+    }
+
+    @Override
+    public int getQueuedBytes() {
+        return line == null ? 0 : line.getBufferSize() - line.available();
+    }
+
+    @Override
+    public boolean isRealtime() {
+        return true;
+    }
+
+    @Override
+    public void close() {
+        if (line == null) return;
+        line.stop();
+        line.flush();
+        line.close();
+        line = null;
+    }
+}
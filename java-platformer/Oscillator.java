@@ -0,0 +1,59 @@
+// Phase-accumulator oscillator reading a band-limited Wavetable.
+// Costs one table lookup and one linear interpolation per sample.
+class Oscillator {
+    private final Wavetable wavetable;
+    private float[] table;
+    private double phase = 0.0;     // In cycles, 0 <= phase < 1
+    private double increment = 0.0; // Cycles per sample
+    private double frequency = 0.0;
+
+    public Oscillator(Wavetable wavetable) {
+        this.wavetable = wavetable;
+        this.table = wavetable.tableFor(0);
+    }
+
+    public Oscillator(Wavetable wavetable, double frequency) {
+        this(wavetable);
+        setFrequency(frequency);
+    }
+
+    // Changes pitch without resetting phase, so sweeps stay continuous
+    public void setFrequency(double frequency) {
+        this.frequency = frequency;
+        increment = frequency / AudioMixer.SAMPLE_RATE;
+        table = wavetable.tableFor(frequency);
+    }
+
+    public void resetPhase(double phase) {
+        this.phase = phase - Math.floor(phase);
+    }
+
+    // Adds the next frames samples, times gain, to out[from..] and advances past them
+    public void addTo(float[] out, int from, int frames, float gain) {
+        phase = SynthKernels.get().addOscillator(table, phase, increment, gain, out, from, frames);
+    }
+
+    // Adds count samples taken every stride frames to out[0..], as if running at
+    // 1/stride of the sample rate, then advances by frames. The table is
+    // band-limited for the lower rate.
+    public void addDecimatedTo(float[] out, int count, float gain, int stride, int frames) {
+        float[] decimatedTable = wavetable.tableFor(frequency * stride);
+        SynthKernels.get().addOscillator(decimatedTable, phase, increment * stride, gain, out, 0, count);
+        double end = phase + frames * increment;
+        phase = end - Math.floor(end);
+    }
+
+    // Advances by frames without producing output
+    public void skip(int frames) {
+        double end = phase + frames * increment;
+        phase = end - Math.floor(end);
+    }
+
+    // Returns the current sample and advances by one sample
+    public float next() {
+        float value = Wavetable.lookup(table, phase);
+        phase += increment;
+        if (phase >= 1.0) phase -= 1.0;
+        return value;
+    }
+}
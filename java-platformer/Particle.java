@@ -9,8 +9,10 @@ enum ParticleType {
 
 class Particle {
     double x, y;        
+    double previousX, previousY; // Position before the latest update, for render interpolation
     double vx, vy;      
     Color color;
+    AlphaRamp fade;     // color at every alpha, for draw()
     double lifespan;    
     double initialLifespan;
     double size;        
@@ -24,6 +26,8 @@ class Particle {
     public Particle(double x, double y, Color baseColor, ParticleType type) {
         this.x = x;
         this.y = y;
+        this.previousX = x;
+        this.previousY = y;
         this.type = type;
         double baseSpeed, speedVariation;
         double angleSpread = 2 * Math.PI; 
@@ -33,7 +37,8 @@ class Particle {
                 int r = Math.max(0, Math.min(255, baseColor.getRed() + random.nextInt(40) - 20));
                 int g = Math.max(0, Math.min(255, baseColor.getGreen() + random.nextInt(40) - 20));
                 int b = Math.max(0, Math.min(255, baseColor.getBlue() - random.nextInt(50) - 20)); 
-                this.color = new Color(r, g, b);
+                // Jitter in steps of 8 so bursts share a bounded set of fade ramps
+                this.color = new Color(r & ~7, g & ~7, b & ~7);
                 
                 baseSpeed = 110; 
                 speedVariation = 70;
@@ -58,12 +63,13 @@ class Particle {
                 this.initialSize = 6 + random.nextDouble() * 4; 
                 this.size = this.initialSize; 
                 this.lifespan = this.initialLifespan;
+                this.fade = AlphaRamp.of(this.color);
                 return; 
 
             case FIREBALL_HIT:
                 int rF = 220 + random.nextInt(36); 
                 int gF = 80 + random.nextInt(100); 
-                this.color = new Color(rF, gF, 0); 
+                this.color = new Color(rF & ~7, gF & ~7, 0); 
                 baseSpeed = 90; 
                 speedVariation = 70;
                 this.initialLifespan = 0.45 + random.nextDouble() * 0.35; 
@@ -86,9 +92,12 @@ class Particle {
         
         this.lifespan = this.initialLifespan;
         this.size = this.initialSize;
+        this.fade = AlphaRamp.of(this.color);
     }
 
     public boolean update(double dt) {
+        this.previousX = this.x;
+        this.previousY = this.y;
         this.x += this.vx * dt;
         this.y += this.vy * dt;
         this.lifespan -= dt;
@@ -124,8 +133,16 @@ class Particle {
     }
 
     public void draw(GameEngine ge, double cameraX) {
+        Color color = currentColor();
+        if (color != null) {
+            draw(ge, this.x, this.y, this.size, color, cameraX);
+        }
+    }
+
+    // The colour to draw the particle in now, or null if there is nothing to draw
+    public Color currentColor() {
         if (this.lifespan <= 0 || this.size <= 0) {
-            return;
+            return null;
         }
 
         int alpha = (int) (255 * (this.lifespan / this.initialLifespan));
@@ -133,15 +150,19 @@ class Particle {
             alpha = (int) (150 * (this.lifespan / this.initialLifespan)); 
         }
         alpha = Math.max(0, Math.min(255, alpha));
-        
-        Color drawColor = new Color(this.color.getRed(), this.color.getGreen(), this.color.getBlue(), alpha);
-        ge.changeColor(drawColor);
+        return fade.at(alpha);
+    }
+
+    // Draws a particle from a render snapshot; color is its currentColor() when copied
+    public static void draw(GameEngine ge, double x, double y, double size, Color color, double cameraX) {
+        ge.setDrawLayer(DrawLayer.PARTICLE);
+        ge.changeColor(color);
 
         ge.drawSolidRectangle(
-            this.x - this.size / 2 - cameraX,
-            this.y - this.size / 2,
-            this.size,
-            this.size
+            x - size / 2 - cameraX,
+            y - size / 2,
+            size,
+            size
         );
     }
 }
@@ -59,6 +59,7 @@ class Platform {
 
         if (this.type == PlatformType.HAZARD) {
             // Flat top for hazard
+            ge.setDrawLayer(DrawLayer.PLATFORM_TOP);
             ge.changeColor(this.topSurfaceColor);
             double topSurfaceHeight = Math.min(this.height * 0.30, 8);
             if (this.height < 8) topSurfaceHeight = this.height; 
@@ -67,6 +68,7 @@ class Platform {
             // Spikes
             double remainingHeightForSpikes = this.height - topSurfaceHeight;
             if (remainingHeightForSpikes > 4) { 
+                ge.setDrawLayer(DrawLayer.PLATFORM_BODY);
                 ge.changeColor(this.bodyColor); 
                 int spikeBaseNominalWidth = 12; 
                 int numSpikes = Math.max(1, (int) (this.width / spikeBaseNominalWidth));
@@ -82,28 +84,33 @@ class Platform {
                     ge.drawSolidPolygon(xPoints, yPoints, 3); 
                 }
             } else if (remainingHeightForSpikes > 0) {
+                ge.setDrawLayer(DrawLayer.PLATFORM_BODY);
                 ge.changeColor(this.bodyColor);
                 ge.drawSolidRectangle(screenX, this.y + topSurfaceHeight, this.width, remainingHeightForSpikes);
             }
         } else { 
             // Main body
+            ge.setDrawLayer(DrawLayer.PLATFORM_BODY);
             ge.changeColor(this.bodyColor);
             ge.drawSolidRectangle(screenX, this.y, this.width, this.height);
 
             // Top surface
             if (this.height > detailThickness) {
+                ge.setDrawLayer(DrawLayer.PLATFORM_TOP);
                 ge.changeColor(this.topSurfaceColor);
                 ge.drawSolidRectangle(screenX, this.y, this.width, detailThickness);
             }
             
             // Bottom edge (if enough space and not overlapping top)
             if (this.bottomEdgeColor != null && this.height > detailThickness + bottomEdgeThickness + 1) { 
+                 ge.setDrawLayer(DrawLayer.PLATFORM_BOTTOM);
                  ge.changeColor(this.bottomEdgeColor);
                  ge.drawSolidRectangle(screenX, this.y + this.height - bottomEdgeThickness, this.width, bottomEdgeThickness);
             }
 
             // Subtle side highlight (e.g., on the left side)
             if (this.width > detailThickness && this.height > detailThickness) {
+                ge.setDrawLayer(DrawLayer.PLATFORM_SIDE);
                 ge.changeColor(this.sideHighlightColor);
                 // Draw a thin vertical strip on the left edge, below top surface and above bottom edge
                 double sideHighlightY = this.y + detailThickness;
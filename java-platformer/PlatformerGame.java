@@ -3,8 +3,13 @@ import java.awt.Font;
 import java.awt.FontMetrics;
 import java.awt.GradientPaint;
 import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.Transparency;
 import java.awt.event.KeyEvent;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.Random;
@@ -15,6 +20,12 @@ public class PlatformerGame extends GameEngine {
 
     int currentChunkArrayIndex = 0;
     double cameraX = 0;
+    double previousCameraX = 0; // Camera before the latest tick, for render interpolation
+
+    // Simulation rate; rendering runs at whatever rate the loop manages
+    static final int TICK_RATE = 120;
+    // Fraction of the remaining camera distance covered per 1/240 s, the rate the smoothing was tuned at
+    static final double CAMERA_FOLLOW = 0.09;
 
     final double CHUNK_LENGTH_IN_SCREENS = 4.0;
     double actualChunkLength;
@@ -52,6 +63,22 @@ public class PlatformerGame extends GameEngine {
     private double midCloudsPatternWidth;
     private double nearCloudsPatternWidth;
 
+    static final Color SKY_TOP = new Color(5, 8, 25);
+    static final Color SKY_BOTTOM = new Color(60, 40, 80);
+    // Overlay text styles, made once instead of every frame
+    static final Color GAME_OVER_COLOR = new Color(255, 255, 220);
+    static final Color TITLE_COLOR = new Color(255, 223, 0, 230);
+    static final Font GAME_OVER_FONT = new Font("Arial", Font.BOLD, 60);
+    static final Font PROMPT_FONT = new Font("Arial", Font.PLAIN, 30);
+    static final Font TITLE_FONT = new Font("Arial", Font.BOLD, 180);
+    // Each background list baked into a wrapping tile, drawn back to front
+    private ParallaxLayer[] backgroundLayers;
+    // Platforms of the loaded chunks, baked into image strips; a chunk takes around 2 MB
+    static final long PLATFORM_STRIP_BUDGET_BYTES = 16L * 1024 * 1024;
+    private final ChunkStripCache platformStrips = new ChunkStripCache(PLATFORM_STRIP_BUDGET_BYTES);
+    // update() runs on the simulation thread; paintComponent() draws the latest of these
+    private final SnapshotBuffer<RenderSnapshot> renderSnapshots = new SnapshotBuffer<>(RenderSnapshot::new);
+
     private double lastGeneratedChunkEndX = 0;
     private int chunksCompleted = 0;
     private final int MAX_LOADED_CHUNKS_AHEAD = 2;
@@ -60,6 +87,59 @@ public class PlatformerGame extends GameEngine {
     private final int MAX_ACTIVE_CHUNKS_BUFFER = TARGET_ACTIVE_CHUNKS + 1;
     private final double CHUNK_GENERATION_TRIGGER_SCREENS_BEFORE_END = 1.5;
 
+    // Everything paintComponent() draws, copied from the game after each run of ticks
+    // (see publishRenderState()). Particles and fireballs are copied into arrays that
+    // grow to the most seen and are reused, with their positions before and after the
+    // latest tick so they interpolate like the player and camera. Chunks are shared rather than copied: their
+    // platforms never change once generated, and a power-up is only ever collected.
+    private static class RenderSnapshot {
+        long tickTime;
+        double cameraX, previousCameraX;
+        boolean titleScreenActive, gameLogicActive, gameOverActive;
+        int chunksCompleted;
+        boolean hasPlayer;
+        final Player player = new Player(0, 0);
+        final ArrayList<LevelChunk> chunks = new ArrayList<>();
+
+        int particleCount = 0;
+        double[] particleX = new double[64], particleY = new double[64], particleSize = new double[64];
+        double[] particlePreviousX = new double[64], particlePreviousY = new double[64];
+        Color[] particleColor = new Color[64];
+
+        int fireballCount = 0;
+        double[] fireballX = new double[16], fireballY = new double[16], fireballRadius = new double[16];
+        double[] fireballPreviousX = new double[16];
+
+        void addParticle(Particle particle, Color color) {
+            if (particleCount == particleX.length) {
+                int capacity = particleCount * 2;
+                particleX = Arrays.copyOf(particleX, capacity);
+                particleY = Arrays.copyOf(particleY, capacity);
+                particlePreviousX = Arrays.copyOf(particlePreviousX, capacity);
+                particlePreviousY = Arrays.copyOf(particlePreviousY, capacity);
+                particleSize = Arrays.copyOf(particleSize, capacity);
+                particleColor = Arrays.copyOf(particleColor, capacity);
+            }
+            particleX[particleCount] = particle.x; particleY[particleCount] = particle.y;
+            particlePreviousX[particleCount] = particle.previousX; particlePreviousY[particleCount] = particle.previousY;
+            particleSize[particleCount] = particle.size; particleColor[particleCount] = color;
+            particleCount++;
+        }
+
+        void addFireball(Fireball fb) {
+            if (fireballCount == fireballX.length) {
+                int capacity = fireballCount * 2;
+                fireballX = Arrays.copyOf(fireballX, capacity);
+                fireballY = Arrays.copyOf(fireballY, capacity);
+                fireballPreviousX = Arrays.copyOf(fireballPreviousX, capacity);
+                fireballRadius = Arrays.copyOf(fireballRadius, capacity);
+            }
+            fireballX[fireballCount] = fb.x; fireballY[fireballCount] = fb.y;
+            fireballPreviousX[fireballCount] = fb.previousX; fireballRadius[fireballCount] = fb.radius;
+            fireballCount++;
+        }
+    }
+
     private static class BackgroundElement {
         double initialXOffsetInPattern;
         double y, width, height;
@@ -72,25 +152,88 @@ public class PlatformerGame extends GameEngine {
             this.color = c; this.parallaxFactor = pFactor;
         }
 
-        public void draw(GameEngine ge, double cameraX, double gameWidth, double layerPatternWidth) {
-            if (layerPatternWidth <= 0) return;
-            double parallaxShift = cameraX * this.parallaxFactor;
-            double patternOffset = parallaxShift % layerPatternWidth;
-            if (patternOffset < 0) {
-                patternOffset += layerPatternWidth;
+        // Paints the element with its left edge at x and its top at y - yOrigin
+        public void bake(Graphics2D g, double x, double yOrigin) {
+            g.setColor(this.color);
+            g.fill(new Rectangle2D.Double(x, this.y - yOrigin, this.width, this.height));
+        }
+
+        double top() { return y; }
+    }
+
+    // One background list pre-rendered into a tile exactly one pattern wide. The
+    // pattern wraps, so each frame is one or two blits of the tile instead of a
+    // fill per element (and per building window). Elements are baked at the
+    // layer's mean parallax factor; the per-element jitter was well under a pixel
+    // per screen of travel. The tile is baked on first use and again when the
+    // window size changes.
+    // A layer given sky colours is baked opaque over a full-height gradient, so the
+    // farthest layer also replaces the per-frame sky fill with a plain copy.
+    private static class ParallaxLayer {
+        final ArrayList<BackgroundElement> elements;
+        final int tileWidth;
+        final double parallaxFactor;
+        final double top, bottom;
+        final Color skyTop, skyBottom;
+        BufferedImage tile;
+        int tileTop;
+        int bakedForWidth = -1, bakedForHeight = -1;
+
+        ParallaxLayer(ArrayList<BackgroundElement> elements, double patternWidth) {
+            this(elements, patternWidth, null, null);
+        }
+
+        ParallaxLayer(ArrayList<BackgroundElement> elements, double patternWidth, Color skyTop, Color skyBottom) {
+            this.elements = elements;
+            this.skyTop = skyTop; this.skyBottom = skyBottom;
+            this.tileWidth = Math.max(1, (int) Math.ceil(patternWidth));
+            double factorSum = 0, minY = Double.MAX_VALUE, maxY = -Double.MAX_VALUE;
+            for (BackgroundElement el : elements) {
+                factorSum += el.parallaxFactor;
+                minY = Math.min(minY, el.top());
+                maxY = Math.max(maxY, el.y + el.height);
+            }
+            this.parallaxFactor = elements.isEmpty() ? 0 : factorSum / elements.size();
+            this.top = elements.isEmpty() ? 0 : minY;
+            this.bottom = elements.isEmpty() ? 0 : maxY;
+        }
+
+        public void draw(Graphics2D g, double cameraX, int gameWidth, int gameHeight) {
+            if (elements.isEmpty() && skyTop == null) return;
+            if (tile == null || bakedForWidth != gameWidth || bakedForHeight != gameHeight) {
+                bake(g, gameWidth, gameHeight);
             }
-            double firstInstanceScreenX = this.initialXOffsetInPattern - patternOffset;
-
-            for (double currentScreenX = firstInstanceScreenX - layerPatternWidth; currentScreenX < gameWidth + this.width ; currentScreenX += layerPatternWidth) {
-                 if (currentScreenX + this.width > 0 && currentScreenX < gameWidth) {
-                    ge.changeColor(this.color);
-                    ge.drawSolidRectangle(currentScreenX, this.y, this.width, this.height);
-                    if (this instanceof BuildingBackgroundElement) {
-                        ((BuildingBackgroundElement)this).drawDetails(ge, currentScreenX, this.y);
-                    }
-                 }
+            if (tile == null) return;
+            double patternOffset = (cameraX * parallaxFactor) % tileWidth;
+            if (patternOffset < 0) patternOffset += tileWidth;
+            for (int x = -(int) patternOffset; x < gameWidth; x += tileWidth) {
+                g.drawImage(tile, x, tileTop, null);
             }
         }
+
+        private void bake(Graphics2D target, int gameWidth, int gameHeight) {
+            bakedForWidth = gameWidth; bakedForHeight = gameHeight;
+            // Only the rows the layer covers, clipped to the window
+            tileTop = (skyTop != null) ? 0 : Math.max(0, (int) Math.floor(top));
+            int tileBottom = (skyTop != null) ? gameHeight : Math.min(gameHeight, (int) Math.ceil(bottom));
+            if (tileBottom <= tileTop) { tile = null; return; }
+            // Compatible images stay managed, so Java2D can cache them in video memory
+            tile = target.getDeviceConfiguration().createCompatibleImage(tileWidth, tileBottom - tileTop,
+                    (skyTop != null) ? Transparency.OPAQUE : Transparency.TRANSLUCENT);
+            Graphics2D g = tile.createGraphics();
+            if (skyTop != null) {
+                g.setPaint(new GradientPaint(0, 0, skyTop, 0, gameHeight, skyBottom));
+                g.fillRect(0, 0, tileWidth, gameHeight);
+            }
+            g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            for (BackgroundElement el : elements) {
+                double x = el.initialXOffsetInPattern % tileWidth;
+                el.bake(g, x, tileTop);
+                // The part hanging off the right edge wraps around to the left
+                if (x + el.width > tileWidth) { el.bake(g, x - tileWidth, tileTop); }
+            }
+            g.dispose();
+        }
     }
 
     private static class BuildingBackgroundElement extends BackgroundElement {
@@ -131,14 +274,24 @@ public class PlatformerGame extends GameEngine {
                 }
             }
         }
-        public void drawDetails(GameEngine ge, double buildingScreenX, double buildingScreenY) {
+        @Override
+        public void bake(Graphics2D g, double x, double yOrigin) {
+            super.bake(g, x, yOrigin);
             if (details != null) {
                 for (BuildingDetail detail : details) {
-                    ge.changeColor(detail.color);
-                    ge.drawSolidRectangle(buildingScreenX + detail.relX, buildingScreenY + detail.relY, detail.width, detail.height);
+                    g.setColor(detail.color);
+                    g.fill(new Rectangle2D.Double(x + detail.relX, this.y - yOrigin + detail.relY, detail.width, detail.height));
                 }
             }
         }
+
+        // Rooftop clutter sticks up above the building
+        @Override
+        double top() {
+            double top = y;
+            if (details != null) { for (BuildingDetail detail : details) { top = Math.min(top, y + detail.relY); } }
+            return top;
+        }
     }
     private static class BuildingDetail {
         double relX, relY, width, height; Color color;
@@ -222,6 +375,14 @@ public class PlatformerGame extends GameEngine {
             currentXOffset += cWidth + (220 + randomGenerator.nextDouble() * 220);
         }
         nearCloudsPatternWidth = calculatePatternWidth(nearClouds, 2.0, 3.0);
+
+        backgroundLayers = new ParallaxLayer[] {
+            new ParallaxLayer(stars, starsPatternWidth, SKY_TOP, SKY_BOTTOM),
+            new ParallaxLayer(farDistantBuildings, farDistantBuildingsPatternWidth),
+            new ParallaxLayer(midClouds, midCloudsPatternWidth),
+            new ParallaxLayer(distantBuildings, distantBuildingsPatternWidth),
+            new ParallaxLayer(nearClouds, nearCloudsPatternWidth)
+        };
     }
 
     private void generateAndAddNextChunk() {
@@ -231,15 +392,44 @@ public class PlatformerGame extends GameEngine {
         LevelChunk newChunk = new LevelChunk(newChunkData.platforms, newChunkData.powerUps, actualChunkLength, lastGeneratedChunkEndX);
         activeChunks.add(newChunk);
         lastGeneratedChunkEndX += actualChunkLength;
+        prepareChunkSounds(newChunk);
+    }
+
+    // Pre-renders the landing chord of every solid platform in the chunk while the
+    // player is still screens away from it. The pinned tones are kept on the chunk,
+    // since the frequency depends on height(), which may change before the release.
+    private void prepareChunkSounds(LevelChunk chunk) {
+        int solid = 0;
+        for (Platform p : chunk.platforms) { if (p.type == PlatformType.SOLID) solid++; }
+        chunk.pinnedToneFrequencies = new double[solid];
+        chunk.pinnedToneDurationsMs = new int[solid];
+        int i = 0;
+        for (Platform p : chunk.platforms) {
+            if (p.type != PlatformType.SOLID) continue;
+            chunk.pinnedToneFrequencies[i] = Player.landingToneFrequency(p, height());
+            chunk.pinnedToneDurationsMs[i] = Player.landingToneDurationMs(p);
+            prepareTone(chunk.pinnedToneFrequencies[i], chunk.pinnedToneDurationsMs[i]);
+            i++;
+        }
+    }
+
+    private void releaseChunkSounds(LevelChunk chunk) {
+        if (chunk.pinnedToneFrequencies == null) return;
+        for (int i = 0; i < chunk.pinnedToneFrequencies.length; i++) {
+            releaseTone(chunk.pinnedToneFrequencies[i], chunk.pinnedToneDurationsMs[i]);
+        }
+        chunk.pinnedToneFrequencies = null;
+        chunk.pinnedToneDurationsMs = null;
     }
 
     private void initializeFirstChunks() {
+        for (LevelChunk chunk : activeChunks) { releaseChunkSounds(chunk); }
         activeChunks.clear(); lastGeneratedChunkEndX = 0; chunksCompleted = 0; currentChunkArrayIndex = 0;
         for (int i = 0; i < 1 + MAX_LOADED_CHUNKS_AHEAD; i++) { generateAndAddNextChunk(); }
     }
 
     private void resetGameVariables() {
-        cameraX = 0;
+        cameraX = 0; previousCameraX = 0;
         keyLeftPressed = false; keyRightPressed = false; keyCrouchPressed = false;
         jumpKeyJustPressed = false;
         jumpKeyCurrentlyHeld = false;
@@ -258,6 +448,7 @@ public class PlatformerGame extends GameEngine {
              player = new Player(initialPlayerSpawnX, initialPlayerSpawnY);
         }
         player.x = initialPlayerSpawnX; player.y = initialPlayerSpawnY; player.vx = 0; player.vy = 0;
+        player.savePreviousPosition();
         player.jumpsAvailable = player.MAX_STANDARD_JUMPS; player.shieldLevel = 1; player.isCrouching = false;
         player.collisionHeight = player.baseCollisionHeight; player.currentVisualState = Player.VisualState.NORMAL; player.visualEffectTimer = 0;
         resetGameVariables();
@@ -267,6 +458,7 @@ public class PlatformerGame extends GameEngine {
     @Override
     public void init() {
         setWindowSize(900, 550); randomGenerator = new Random();
+        setTickRate(TICK_RATE);
         actualChunkLength = width() * CHUNK_LENGTH_IN_SCREENS;
         Player tempPlayerForHeight = new Player(0,0);
         initialPlayerSpawnX = 50; initialPlayerSpawnY = height() - 100 - tempPlayerForHeight.baseCollisionHeight;
@@ -318,6 +510,8 @@ public class PlatformerGame extends GameEngine {
 
     @Override
     public void update(double dt) {
+        previousCameraX = cameraX;
+        if (player != null) player.savePreviousPosition();
         if (activeParticles != null) {
             Iterator<Particle> particleIterator = activeParticles.iterator();
             while (particleIterator.hasNext()) { if (!particleIterator.next().update(dt)) { particleIterator.remove(); } }
@@ -403,7 +597,9 @@ public class PlatformerGame extends GameEngine {
         }
 
         while (activeChunks.size() > TARGET_ACTIVE_CHUNKS && currentChunkArrayIndex > MAX_LOADED_CHUNKS_BEHIND) {
-            activeChunks.removeFirst();
+            LevelChunk despawned = activeChunks.removeFirst();
+            releaseChunkSounds(despawned);
+            // Its platform strips are dropped by the next frame that no longer has it
             currentChunkArrayIndex--;
             System.out.println("Despawned chunk. Active: " + activeChunks.size() + ". New currentArrayIndex: " + currentChunkArrayIndex);
         }
@@ -473,7 +669,8 @@ public class PlatformerGame extends GameEngine {
 
         if (player != null) {
             double targetCameraX = player.x - width() / 3.2;
-            cameraX += (targetCameraX - cameraX) * 0.09; if (cameraX < 0) cameraX = 0;
+            double follow = 1.0 - Math.pow(1.0 - CAMERA_FOLLOW, dt * 240.0);
+            cameraX += (targetCameraX - cameraX) * follow; if (cameraX < 0) cameraX = 0;
         }
     }
 
@@ -514,39 +711,88 @@ public class PlatformerGame extends GameEngine {
         }
     }
 
+    // Copies what paintComponent() needs; called on the simulation thread after each run of ticks
+    @Override
+    protected void publishRenderState() {
+        RenderSnapshot snapshot = renderSnapshots.writable();
+        snapshot.tickTime = getTickTime();
+        snapshot.cameraX = cameraX; snapshot.previousCameraX = previousCameraX;
+        snapshot.titleScreenActive = titleScreenActive;
+        snapshot.gameLogicActive = gameLogicActive;
+        snapshot.gameOverActive = gameOverActive;
+        snapshot.chunksCompleted = chunksCompleted;
+        snapshot.hasPlayer = (player != null);
+        if (player != null) snapshot.player.copyPoseFrom(player);
+
+        snapshot.chunks.clear();
+        if (activeChunks != null) { for (LevelChunk chunk : activeChunks) { snapshot.chunks.add(chunk); } }
+        Arrays.fill(snapshot.particleColor, 0, snapshot.particleCount, null);
+        snapshot.particleCount = 0;
+        if (activeParticles != null) {
+            for (Particle particle : activeParticles) {
+                Color color = particle.currentColor();
+                if (color != null) snapshot.addParticle(particle, color);
+            }
+        }
+        snapshot.fireballCount = 0;
+        if (fireballs != null) { for (Fireball fb : fireballs) { snapshot.addFireball(fb); } }
+        renderSnapshots.publish();
+    }
+
     @Override
     public void paintComponent() {
-        Color topSky = new Color(5, 8, 25);
-        Color bottomSky = new Color(60, 40, 80);
-        if (mGraphics instanceof Graphics2D) {
-            Graphics2D g2d = (Graphics2D) mGraphics;
-            GradientPaint skyGradient = new GradientPaint(0, 0, topSky, 0, height(), bottomSky);
-            g2d.setPaint(skyGradient);
-            g2d.fillRect(0, 0, width(), height());
+        // Only the snapshot is drawn; the game itself may be mid-tick on the simulation thread
+        RenderSnapshot snapshot = renderSnapshots.latest();
+        Player player = snapshot.hasPlayer ? snapshot.player : null;
+        boolean gameLogicActive = snapshot.gameLogicActive;
+        boolean gameOverActive = snapshot.gameOverActive;
+        boolean titleScreenActive = snapshot.titleScreenActive;
+        int chunksCompleted = snapshot.chunksCompleted;
+
+        // Draw between the last two ticks the snapshot saw
+        double alpha = getInterpolationAlpha(snapshot.tickTime);
+        double cameraX = snapshot.previousCameraX + (snapshot.cameraX - snapshot.previousCameraX) * alpha;
+
+        if (backgroundLayers != null) {
+            // The first layer is baked over the sky, so this covers the whole window
+            for (ParallaxLayer layer : backgroundLayers) { layer.draw(mGraphics, cameraX, width(), height()); }
         } else {
-            changeBackgroundColor(new Color(10, 15, 35));
-            clearBackground(width(), height());
+            GradientPaint skyGradient = new GradientPaint(0, 0, SKY_TOP, 0, height(), SKY_BOTTOM);
+            mGraphics.setPaint(skyGradient);
+            mGraphics.fillRect(0, 0, width(), height());
         }
 
-        if (stars != null) { for (BackgroundElement star : stars) { star.draw(this, cameraX, width(), starsPatternWidth); } }
-        if (farDistantBuildings != null) { for (BackgroundElement bgEl : farDistantBuildings) { bgEl.draw(this, cameraX, width(), farDistantBuildingsPatternWidth); } }
-        if (midClouds != null) { for (BackgroundElement bgEl : midClouds) { bgEl.draw(this, cameraX, width(), midCloudsPatternWidth); } }
-        if (distantBuildings != null) { for (BackgroundElement bgEl : distantBuildings) { bgEl.draw(this, cameraX, width(), distantBuildingsPatternWidth); } }
-        if (nearClouds != null) { for (BackgroundElement bgEl : nearClouds) { bgEl.draw(this, cameraX, width(), nearCloudsPatternWidth); } }
-
         if (gameLogicActive || gameOverActive || titleScreenActive) {
-            if (activeChunks != null && !activeChunks.isEmpty()) {
-                for (LevelChunk chunk : activeChunks) {
+            // Platforms, power-ups, particles and fireballs are drawn by layer and colour;
+            // entities tag their parts with DrawLayer
+            beginBatch();
+            platformStrips.retainOnly(snapshot.chunks);
+            platformStrips.nextFrame();
+            if (!snapshot.chunks.isEmpty()) {
+                for (LevelChunk chunk : snapshot.chunks) {
                     if (chunk != null &&
                         chunk.startWorldX < cameraX + width() + chunk.chunkWidth*0.5 &&
                         chunk.startWorldX + chunk.chunkWidth > cameraX - chunk.chunkWidth*0.5) {
-                        chunk.draw(this, cameraX);
+                        chunk.draw(this, cameraX, platformStrips);
                     }
                 }
             }
-            if (activeParticles != null) { for (Particle particle : activeParticles) { particle.draw(this, cameraX); } }
-            if (fireballs != null) { for (Fireball fb : fireballs) { fb.draw(this, cameraX); } }
-            if (player != null) { player.draw(this, cameraX); }
+            for (int i = 0; i < snapshot.particleCount; i++) {
+                double x = snapshot.particlePreviousX[i] + (snapshot.particleX[i] - snapshot.particlePreviousX[i]) * alpha;
+                double y = snapshot.particlePreviousY[i] + (snapshot.particleY[i] - snapshot.particlePreviousY[i]) * alpha;
+                Particle.draw(this, x, y, snapshot.particleSize[i], snapshot.particleColor[i], cameraX);
+            }
+            for (int i = 0; i < snapshot.fireballCount; i++) {
+                double x = snapshot.fireballPreviousX[i] + (snapshot.fireballX[i] - snapshot.fireballPreviousX[i]) * alpha;
+                Fireball.draw(this, x, snapshot.fireballY[i], snapshot.fireballRadius[i], cameraX);
+            }
+            endBatch();
+            if (player != null) {
+                saveCurrentTransform();
+                translate((player.x - player.previousX) * (alpha - 1.0), (player.y - player.previousY) * (alpha - 1.0));
+                player.draw(this, cameraX);
+                restoreLastTransform();
+            }
 
             if (player != null && gameLogicActive && !gameOverActive && !titleScreenActive) {
                 changeColor(Color.WHITE);
@@ -558,21 +804,21 @@ public class PlatformerGame extends GameEngine {
         }
 
         if (gameOverActive) {
-            changeColor(new Color(255, 255, 220));
-            Font gameOverFont = new Font("Arial", Font.BOLD, 60);
+            changeColor(GAME_OVER_COLOR);
+            Font gameOverFont = GAME_OVER_FONT;
             String gameOverText = "Chunks Passed: " + chunksCompleted;
             double textWidth = getTextWidthEstimate(gameOverText, gameOverFont);
             drawText((width() - textWidth) / 2, height() * 0.4, gameOverText, gameOverFont.getName(), gameOverFont.getSize());
             changeColor(Color.WHITE);
-            Font promptFont = new Font("Arial", Font.PLAIN, 30);
+            Font promptFont = PROMPT_FONT;
             String promptText = "Press any key to restart";
             double promptWidth = getTextWidthEstimate(promptText, promptFont);
             drawText((width() - promptWidth) / 2, height() * 0.6, promptText, promptFont.getName(), promptFont.getSize());
         } else if (titleScreenActive) {
-            Font titleFont = new Font("Arial", Font.BOLD, 180); String titleText = "JAIMP";
+            Font titleFont = TITLE_FONT; String titleText = "JAIMP";
             double titleWidth = getTextWidthEstimate(titleText, titleFont);
             double titleX = (width() - titleWidth) / 2.0; double titleY = height() * 0.5;
-            changeColor(new Color(255, 223, 0, 230));
+            changeColor(TITLE_COLOR);
             drawText(titleX, titleY + titleFont.getSize() / 3, titleText, titleFont.getName(), titleFont.getSize());
         }
     }
@@ -588,5 +834,14 @@ public class PlatformerGame extends GameEngine {
         if (font.getSize() > 50) return text.length() * (font.getSize() * 0.45);
         return text.length() * (font.getSize() * 0.55);
     }
+    // Run update/paint on the engine's own loop thread with page flipping;
+    // the Swing timer path can't get anywhere near the 244 FPS we ask for
+    @Override
+    protected boolean useActiveRendering() { return true; }
+
+    // Ticks and key handling on their own thread, so frames only draw snapshots
+    @Override
+    protected boolean useSimulationThread() { return true; }
+
     public static void main(String[] args) { createGame(new PlatformerGame()); }
 }
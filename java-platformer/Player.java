@@ -3,6 +3,7 @@ import java.util.Random;
 
 class Player {
     double x, y;
+    double previousX, previousY; // Position before the latest tick, for render interpolation
     double collisionWidth = 30;
     double baseCollisionHeight = 45;
     double crouchCollisionHeight = 25;
@@ -34,8 +35,8 @@ class Player {
     Color shieldOutlineColor = new Color(220, 220, 255, 150);
     Color shieldLevel2Color = new Color(180, 180, 255, 180);
     Color shieldLevel3Color = new Color(150, 150, 255, 210);
-    Color eyeWhiteColor = Color.WHITE;
-    Color eyePupilColor = Color.BLACK;
+    private static final Color EYE_WHITE_COLOR = Color.WHITE;
+    private static final Color EYE_PUPIL_COLOR = Color.BLACK;
 
 
     enum VisualState { NORMAL, SQUASHING, STRETCHING, CROUCH_SQUASH }
@@ -55,6 +56,13 @@ class Player {
     private static final double EYE_OFFSET_X_FRONT = 7;
     private static final double EYE_VERTICAL_POSITION_FACTOR = 0.33;
     private static final double EYE_SINGLE_OFFSET_X = 0;
+    // Eyes are pre-rendered at every EYE_SCALE_STEP of a blink
+    private static final double EYE_SCALE_STEP = 0.05;
+    private static final int EYE_SPRITE_WIDTH = (int) EYE_BASE_WIDTH + 2;
+    private static final int EYE_SPRITE_HEIGHT = (int) EYE_BASE_HEIGHT + 2;
+    // Shared by every player, so respawns and copies don't bake the eyes again
+    private static final SpriteAtlas.Family EYE_SPRITES = SpriteAtlas.shared().addFamily(EYE_SPRITE_WIDTH, EYE_SPRITE_HEIGHT,
+            (int) Math.round(1.0 / EYE_SCALE_STEP) + 1, Player::paintEyeSprite);
 
     private double eyeLeftCurrentScaleY = 1.0;
     private double eyeRightCurrentScaleY = 1.0;
@@ -165,6 +173,25 @@ class Player {
     private enum EyeIdentifier { LEFT, RIGHT }
 
 
+    // Remember where the player was before this tick so draws can interpolate
+    void savePreviousPosition() {
+        previousX = x; previousY = y;
+    }
+
+    // Copies everything draw() and the HUD use from other, for a render snapshot
+    void copyPoseFrom(Player other) {
+        x = other.x; y = other.y;
+        previousX = other.previousX; previousY = other.previousY;
+        collisionHeight = other.collisionHeight;
+        visualWidth = other.visualWidth; visualHeight = other.visualHeight;
+        jumpsAvailable = other.jumpsAvailable;
+        shieldLevel = other.shieldLevel;
+        isCrouching = other.isCrouching;
+        facing = other.facing;
+        eyeLeftCurrentScaleY = other.eyeLeftCurrentScaleY;
+        eyeRightCurrentScaleY = other.eyeRightCurrentScaleY;
+    }
+
     public void update(double dt, LevelChunk currentChunk, double currentChunkWorldStartX, GameEngine ge) {
         if (vx > 0.1) {
             facing = FacingDirection.RIGHT;
@@ -271,20 +298,27 @@ class Player {
 
     private void playPitchedPlatformSound(Platform landedPlatform, GameEngine ge) {
         if (landedPlatform == null || ge == null) return;
-        double gameHeight = ge.height();
+        ge.playTone(landingToneFrequency(landedPlatform, ge.height()), landingToneDurationMs(landedPlatform));
+    }
+
+    // Landing tone pitch: higher platforms sound higher. Also used to pre-render a chunk's chords.
+    static double landingToneFrequency(Platform platform, double gameHeight) {
         if (gameHeight <= 0) gameHeight = 550;
-        double normalizedY = landedPlatform.y / gameHeight;
+        double normalizedY = platform.y / gameHeight;
         double minFreq = 110.0; double maxFreq = 880.0;
         double frequency = maxFreq - (normalizedY * (maxFreq - minFreq));
-        frequency = Math.max(minFreq, Math.min(maxFreq, frequency));
-        double platformWidth = landedPlatform.width;
+        return Math.max(minFreq, Math.min(maxFreq, frequency));
+    }
+
+    // Landing tone length: wider platforms ring longer
+    static int landingToneDurationMs(Platform platform) {
+        double platformWidth = platform.width;
         double minPlatformWidthForSound = 20.0; double maxPlatformWidthForSound = 500.0;
         double minDurationMs = 900.0; double maxDurationMs = 2500.0;
         double normalizedWidth = (platformWidth - minPlatformWidthForSound) / (maxPlatformWidthForSound - minPlatformWidthForSound);
         normalizedWidth = Math.max(0.0, Math.min(1.0, normalizedWidth));
         int durationMs = (int) (minDurationMs + normalizedWidth * (maxDurationMs - minDurationMs));
-        durationMs = Math.max((int)minDurationMs, Math.min(durationMs, (int)maxDurationMs));
-        ge.playTone(frequency, durationMs);
+        return Math.max((int)minDurationMs, Math.min(durationMs, (int)maxDurationMs));
     }
     
     private void playMidAirJumpSound(GameEngine ge) { if (ge != null) { ge.playMidAirJumpSound(); } }
@@ -338,14 +372,27 @@ class Player {
     }
 
     private void drawOneEyeRect(GameEngine ge, double cameraX, double centerX, double centerY, double scaleY) {
+        int variant = (int) Math.round(scaleY / EYE_SCALE_STEP);
+        if (variant >= 0 && variant < EYE_SPRITES.variants() && SpriteAtlas.shared().draw(ge, EYE_SPRITES, variant,
+                centerX - cameraX - EYE_SPRITE_WIDTH / 2.0, centerY - EYE_SPRITE_HEIGHT / 2.0)) {
+            return;
+        }
+        fillOneEyeRect(ge, cameraX, centerX, centerY, scaleY);
+    }
+
+    private static void paintEyeSprite(GameEngine ge, int variant) {
+        fillOneEyeRect(ge, 0, EYE_SPRITE_WIDTH / 2.0, EYE_SPRITE_HEIGHT / 2.0, variant * EYE_SCALE_STEP);
+    }
+
+    private static void fillOneEyeRect(GameEngine ge, double cameraX, double centerX, double centerY, double scaleY) {
         double actualEyeHeight = EYE_BASE_HEIGHT * scaleY;
         double actualEyeWidth = EYE_BASE_WIDTH;
         double pupilHeight = actualEyeHeight * 0.5;
         double pupilWidth = actualEyeWidth * 0.5;
 
-        ge.changeColor(eyeWhiteColor);
+        ge.changeColor(EYE_WHITE_COLOR);
         ge.drawSolidRectangle(centerX - actualEyeWidth / 2 - cameraX, centerY - actualEyeHeight / 2, actualEyeWidth, actualEyeHeight);
-        ge.changeColor(eyePupilColor);
+        ge.changeColor(EYE_PUPIL_COLOR);
         ge.drawSolidRectangle(centerX - pupilWidth / 2 - cameraX, centerY - pupilHeight / 2, pupilWidth, pupilHeight);
     }
 
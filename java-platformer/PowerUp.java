@@ -1,4 +1,5 @@
 import java.awt.Color;
+import java.util.HashMap;
 import java.util.Random;
 
 class PowerUp {
@@ -7,13 +8,20 @@ class PowerUp {
     Color coreColor;        
     Color midGlowBaseColor; 
     Color outerGlowBaseColor; 
-    boolean isCollected;
+    AlphaRamp midGlowRamp, outerGlowRamp; // The glow colours at every alpha they pulse through
+    volatile boolean isCollected; // Set by the simulation thread while frames draw the chunk
 
     private double glowPhase = 0;
     private static final double GLOW_SPEED_MID = 2.8; // Slightly faster
     private static final double GLOW_SPEED_OUTER = 2.1; 
     private static Random random = new Random();
 
+    // Both pulses repeat over this much glowPhase (2.8 and 2.1 are 4 and 3 times 0.7),
+    // so the glow is pre-rendered at GLOW_FRAMES phases across it, one sprite per type
+    private static final double GLOW_PERIOD = 2 * Math.PI / 0.7;
+    private static final int GLOW_FRAMES = 128;
+    private static final HashMap<Integer, SpriteAtlas.Family> glowSprites = new HashMap<>();
+
 
     public PowerUp(double x, double y, double w, double h, int type) {
         this.x = x; this.y = y; this.width = w; this.height = h;
@@ -32,6 +40,8 @@ class PowerUp {
                 this.midGlowBaseColor = new Color(100, 220, 220);
                 this.outerGlowBaseColor = new Color(50, 180, 180);
         }
+        this.midGlowRamp = AlphaRamp.of(midGlowBaseColor);
+        this.outerGlowRamp = AlphaRamp.of(outerGlowBaseColor);
     }
 
     /**
@@ -53,44 +63,74 @@ class PowerUp {
             double screenX = absoluteItemX - cameraX;    // Position on screen
             double screenY = this.y;                     // PowerUp's y is world coordinate
 
-            double baseMinDim = Math.min(this.width, this.height);
-            
-            // Core
-            double coreSize = baseMinDim * 0.55; 
-            double coreDrawX = screenX + (this.width - coreSize) / 2;
-            double coreDrawY = screenY + (this.height - coreSize) / 2;
-
-            // Mid Glow Layer - pulsating size and alpha
-            double midGlowBaseSize = baseMinDim * 0.85;
-            double midGlowPulseFactor = 0.08 * Math.sin(glowPhase * GLOW_SPEED_MID); 
-            double currentMidGlowSize = midGlowBaseSize * (1 + midGlowPulseFactor);
-            int midGlowAlpha = 100 + (int)(50 * Math.sin(glowPhase * GLOW_SPEED_MID + Math.PI/2)); 
-            Color currentMidGlowColor = new Color(midGlowBaseColor.getRed(), midGlowBaseColor.getGreen(), midGlowBaseColor.getBlue(), Math.max(0, Math.min(255, midGlowAlpha)));
-            double midGlowDrawX = screenX + (this.width - currentMidGlowSize) / 2;
-            double midGlowDrawY = screenY + (this.height - currentMidGlowSize) / 2;
-
-            // Outer Glow Layer - pulsating size and alpha (different speed)
-            double outerGlowBaseSize = baseMinDim * 1.25;
-            double outerGlowPulseFactor = 0.10 * Math.sin(glowPhase * GLOW_SPEED_OUTER); 
-            double currentOuterGlowSize = outerGlowBaseSize * (1 + outerGlowPulseFactor);
-            int outerGlowAlpha = 60 + (int)(40 * Math.sin(glowPhase * GLOW_SPEED_OUTER + Math.PI)); 
-            Color currentOuterGlowColor = new Color(outerGlowBaseColor.getRed(), outerGlowBaseColor.getGreen(), outerGlowBaseColor.getBlue(), Math.max(0, Math.min(255, outerGlowAlpha)));
-            double outerGlowDrawX = screenX + (this.width - currentOuterGlowSize) / 2;
-            double outerGlowDrawY = screenY + (this.height - currentOuterGlowSize) / 2;
-
-
-            // Draw from outermost to innermost
-            ge.changeColor(currentOuterGlowColor);
-            ge.drawSolidRectangle(outerGlowDrawX, outerGlowDrawY, currentOuterGlowSize, currentOuterGlowSize);
-
-            ge.changeColor(currentMidGlowColor);
-            ge.drawSolidRectangle(midGlowDrawX, midGlowDrawY, currentMidGlowSize, currentMidGlowSize);
-
-            ge.changeColor(this.coreColor); 
-            ge.drawSolidRectangle(coreDrawX, coreDrawY, coreSize, coreSize);
+            SpriteAtlas.Family sprites = glowSprites();
+            if (sprites != null) {
+                int frame = (int) Math.round(glowPhase / GLOW_PERIOD * GLOW_FRAMES) % GLOW_FRAMES;
+                if (SpriteAtlas.shared().draw(ge, sprites, frame,
+                        screenX + (this.width - sprites.width) / 2, screenY + (this.height - sprites.height) / 2)) {
+                    return;
+                }
+            }
+            drawGlow(ge, screenX, screenY, glowPhase);
         }
     }
 
+    // The glow sprites for this power-up's type, made by the first one drawn; null
+    // if that one was a different size, in which case this one is drawn directly
+    private SpriteAtlas.Family glowSprites() {
+        // The outer glow at its largest, plus a pixel of antialiasing each side
+        int size = (int) Math.ceil(Math.min(this.width, this.height) * 1.25 * 1.10) + 2;
+        SpriteAtlas.Family sprites = glowSprites.get(type);
+        if (sprites == null) {
+            final double offsetX = (size - this.width) / 2, offsetY = (size - this.height) / 2;
+            sprites = SpriteAtlas.shared().addFamily(size, size, GLOW_FRAMES,
+                    (ge, frame) -> drawGlow(ge, offsetX, offsetY, frame * GLOW_PERIOD / GLOW_FRAMES));
+            glowSprites.put(type, sprites);
+        }
+        return (sprites.width == size) ? sprites : null;
+    }
+
+    private void drawGlow(GameEngine ge, double screenX, double screenY, double glowPhase) {
+        double baseMinDim = Math.min(this.width, this.height);
+        
+        // Core
+        double coreSize = baseMinDim * 0.55; 
+        double coreDrawX = screenX + (this.width - coreSize) / 2;
+        double coreDrawY = screenY + (this.height - coreSize) / 2;
+
+        // Mid Glow Layer - pulsating size and alpha
+        double midGlowBaseSize = baseMinDim * 0.85;
+        double midGlowPulseFactor = 0.08 * Math.sin(glowPhase * GLOW_SPEED_MID); 
+        double currentMidGlowSize = midGlowBaseSize * (1 + midGlowPulseFactor);
+        int midGlowAlpha = 100 + (int)(50 * Math.sin(glowPhase * GLOW_SPEED_MID + Math.PI/2)); 
+        Color currentMidGlowColor = midGlowRamp.at(midGlowAlpha);
+        double midGlowDrawX = screenX + (this.width - currentMidGlowSize) / 2;
+        double midGlowDrawY = screenY + (this.height - currentMidGlowSize) / 2;
+
+        // Outer Glow Layer - pulsating size and alpha (different speed)
+        double outerGlowBaseSize = baseMinDim * 1.25;
+        double outerGlowPulseFactor = 0.10 * Math.sin(glowPhase * GLOW_SPEED_OUTER); 
+        double currentOuterGlowSize = outerGlowBaseSize * (1 + outerGlowPulseFactor);
+        int outerGlowAlpha = 60 + (int)(40 * Math.sin(glowPhase * GLOW_SPEED_OUTER + Math.PI)); 
+        Color currentOuterGlowColor = outerGlowRamp.at(outerGlowAlpha);
+        double outerGlowDrawX = screenX + (this.width - currentOuterGlowSize) / 2;
+        double outerGlowDrawY = screenY + (this.height - currentOuterGlowSize) / 2;
+
+
+        // Draw from outermost to innermost
+        ge.setDrawLayer(DrawLayer.POWER_UP_OUTER_GLOW);
+        ge.changeColor(currentOuterGlowColor);
+        ge.drawSolidRectangle(outerGlowDrawX, outerGlowDrawY, currentOuterGlowSize, currentOuterGlowSize);
+
+        ge.setDrawLayer(DrawLayer.POWER_UP_MID_GLOW);
+        ge.changeColor(currentMidGlowColor);
+        ge.drawSolidRectangle(midGlowDrawX, midGlowDrawY, currentMidGlowSize, currentMidGlowSize);
+
+        ge.setDrawLayer(DrawLayer.POWER_UP_CORE);
+        ge.changeColor(this.coreColor); 
+        ge.drawSolidRectangle(coreDrawX, coreDrawY, coreSize, coreSize);
+    }
+
     public boolean collidesWith(Player player) {
         if (isCollected) return false;
         // This method expects its x,y to be comparable to player's world x,y.
@@ -0,0 +1,73 @@
+// Plain Java versions of the synth kernels, used unless the vector ones are asked for
+class ScalarSynthKernels extends SynthKernels {
+    @Override
+    String getName() {
+        return "scalar";
+    }
+
+    @Override
+    double addOscillator(float[] table, double phase, double increment, float gain,
+                         float[] out, int from, int frames) {
+        // Within a block the position is stepped in float table units, which the
+        // JIT handles far better than double phase; the returned phase is exact
+        float size = Wavetable.TABLE_SIZE;
+        float position = (float) (phase * size);
+        float step = (float) (increment * size);
+        if (position >= size) position -= size;
+        for (int k = 0; k < frames; k++) {
+            int index = (int) position;
+            float fraction = position - index;
+            float a = table[index];
+            out[from + k] += gain * (a + (table[index + 1] - a) * fraction);
+            position += step;
+            if (position >= size) position -= size;
+        }
+        double end = phase + frames * increment;
+        return end - Math.floor(end);
+    }
+
+    @Override
+    void applyRamp(float[] buf, int from, int frames, float start, float step) {
+        for (int k = 0; k < frames; k++) {
+            buf[from + k] *= start + k * step;
+        }
+    }
+
+    @Override
+    void applyDecay(float[] buf, int from, int frames, float start, float ratio) {
+        float envelope = start;
+        for (int k = 0; k < frames; k++) {
+            buf[from + k] *= envelope;
+            envelope *= ratio;
+        }
+    }
+
+    @Override
+    void fillNoise(int[] state, float[] out, int from, int frames, float amplitude) {
+        float scale = amplitude * 2.0f / (1 << 24);
+        for (int group = 0; group < frames; group += NOISE_STREAMS) {
+            int count = Math.min(NOISE_STREAMS, frames - group);
+            for (int lane = 0; lane < NOISE_STREAMS; lane++) {
+                int x = state[lane];
+                x ^= x << 13;
+                x ^= x >>> 17;
+                x ^= x << 5;
+                state[lane] = x;
+                if (lane < count) {
+                    out[from + group + lane] = (x >>> 8) * scale - amplitude;
+                }
+            }
+        }
+    }
+
+    @Override
+    float mix(float[] src, float[] dst, int dstFrom, int frames, float scale) {
+        float peak = 0.0f;
+        for (int k = 0; k < frames; k++) {
+            float sample = src[k] * scale;
+            dst[dstFrom + k] += sample;
+            peak = Math.max(peak, Math.abs(sample));
+        }
+        return peak;
+    }
+}
@@ -0,0 +1,47 @@
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+// Hands the latest copy of some state from one writer thread to one reader thread
+// without locks, e.g. the game state the simulation thread publishes for drawing.
+// There are three preallocated snapshots: the writer fills one, the reader reads
+// another, and the third is the one published most recently. publish() and latest()
+// each swap their own snapshot with the third in one atomic exchange, so neither side
+// ever waits for the other. A reader slower than the writer skips snapshots; a faster
+// one gets the same snapshot again.
+// The snapshot the writer gets back after publishing is an old one, so it must be
+// filled in completely each time. Neither side may touch a snapshot after handing it
+// over: the writer after publish(), the reader after its next latest().
+class SnapshotBuffer<T> {
+    private static final int INDEX_MASK = 3;
+    private static final int FRESH = 4; // Set while the published snapshot hasn't been read
+
+    private final T[] snapshots;
+    // Index of the published snapshot, plus FRESH
+    private final AtomicInteger published = new AtomicInteger(1);
+    private int writing = 0; // Writer only
+    private int reading = 2; // Reader only
+
+    @SuppressWarnings("unchecked")
+    SnapshotBuffer(Supplier<T> factory) {
+        snapshots = (T[]) new Object[] { factory.get(), factory.get(), factory.get() };
+    }
+
+    // The snapshot to fill in before the next publish()
+    T writable() {
+        return snapshots[writing];
+    }
+
+    // Makes the writable snapshot the latest and takes back another to fill next time
+    void publish() {
+        writing = published.getAndSet(writing | FRESH) & INDEX_MASK;
+    }
+
+    // The most recently published snapshot, or the one returned last time if nothing
+    // has been published since. Before the first publish(), a snapshot as the factory made it.
+    T latest() {
+        if ((published.get() & FRESH) != 0) {
+            reading = published.getAndSet(reading) & INDEX_MASK;
+        }
+        return snapshots[reading];
+    }
+}
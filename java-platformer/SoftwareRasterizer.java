@@ -0,0 +1,435 @@
+import java.awt.Graphics2D;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+// Software renderer for the game's solid fills. It draws straight into the int[]
+// pixels of an opaque frame image, which GameEngine then shows with one drawImage.
+// Rectangles get exact edge coverage, so they match Java2D's antialiased fills.
+// Circles and polygons are sampled on SUBSAMPLES rows per pixel, with exact
+// horizontal coverage on each row. That is half the rows Java2D samples, so their
+// edge pixels can be up to 1/8 lighter or darker than Java2D's. In exchange they fill
+// about 1.5x faster; with eight rows they were slower than Java2D. Colours are
+// blended into the pixels with integer arithmetic.
+// Fills are queued, and flush() draws the queue. The frame is cut into horizontal
+// bands, shared out between the calling thread and a fixed set of worker threads.
+// Each band draws the fills that reach into it, in queue order, clipped to its rows,
+// so no two threads touch the same pixel. A thread takes the next band as soon as it
+// finishes one, so one busy band doesn't hold the rest up. flush() returns once every
+// band is done. Small flushes are drawn on the calling thread alone, where waking
+// the workers would cost more than it saves.
+// Everything else (text, images, lines, gradients) is drawn by Java2D into the
+// same image, through the Graphics2D that begin() returns. Call flush() before
+// drawing with it, so the fills queued so far end up underneath.
+class SoftwareRasterizer {
+    static final int SUBSAMPLES = 4;
+    // Coverage of a fully covered pixel; each sample row adds up to FULL / SUBSAMPLES
+    private static final int FULL = 256;
+    private static final int SAMPLE_WEIGHT = FULL / SUBSAMPLES;
+    private static final AffineTransform IDENTITY = new AffineTransform();
+
+    static final int FILL_RECT = 0;
+    static final int FILL_CIRCLE = 1;
+    static final int FILL_POLYGON = 2;
+
+    // Flushes covering fewer pixels than this are drawn without the workers
+    static final long PARALLEL_MIN_PIXELS = 32 * 1024;
+    // Bands per thread, so threads that finish early can take on more
+    static final int BANDS_PER_THREAD = 4;
+    static final int MIN_BAND_HEIGHT = 16;
+
+    private BufferedImage image;
+    private Graphics2D graphics;
+    private int[] pixels;
+    private int width, height;
+
+    // Queued fills: what, in which colour, where its coordinates start, and the rows it covers
+    private int count = 0;
+    private int[] ops = new int[256];
+    private int[] colors = new int[256];
+    private int[] firstCoords = new int[256];
+    private int[] tops = new int[256];
+    private int[] bottoms = new int[256];
+    private double[] coords = new double[1024];
+    private int coordCount = 0;
+    // Roughly how many pixels the queued fills cover
+    private long queuedPixels = 0;
+
+    // painters[0] belongs to the calling thread, the rest to the workers
+    private final Painter[] painters;
+    private final Thread[] workers;
+    private int bandCount, bandHeight;
+    // Bumped to start the workers on a flush
+    private volatile int generation = 0;
+    private final AtomicInteger nextBand = new AtomicInteger();
+    private final AtomicInteger busyWorkers = new AtomicInteger();
+    private volatile Thread flushingThread;
+
+    // Draws on threads threads in all: the caller's, and threads - 1 workers
+    SoftwareRasterizer(int threads) {
+        threads = Math.max(1, threads);
+        painters = new Painter[threads];
+        for (int i = 0; i < threads; i++) painters[i] = new Painter();
+        workers = new Thread[threads - 1];
+        for (int i = 0; i < workers.length; i++) {
+            final Painter painter = painters[i + 1];
+            workers[i] = new Thread(new Runnable() {
+                public void run() {
+                    work(painter);
+                }
+            }, "SoftwareRasterizer " + (i + 1));
+            workers[i].setDaemon(true);
+            workers[i].start();
+        }
+    }
+
+    int threads() {
+        return painters.length;
+    }
+
+    // Starts a width x height frame, reusing the last one's image if the size is the
+    // same. The returned Graphics2D draws into the frame with the same colour, font and
+    // background as window, and no transform.
+    Graphics2D begin(int width, int height, Graphics2D window) {
+        clearQueue();
+        if (image == null || width != this.width || height != this.height) {
+            if (graphics != null) graphics.dispose();
+            image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            // Taking the array makes Java2D stop caching the image; it changes every frame anyway
+            pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+            graphics = image.createGraphics();
+            for (Painter painter : painters) painter.coverage = new int[width + 2];
+            this.width = width;
+            this.height = height;
+            // With no workers there is nothing to share out, so the frame is one band
+            bandCount = workers.length == 0 ? 1
+                    : Math.max(1, Math.min(painters.length * BANDS_PER_THREAD, height / MIN_BAND_HEIGHT));
+            bandHeight = (height + bandCount - 1) / bandCount;
+        }
+        graphics.setTransform(IDENTITY);
+        graphics.setColor(window.getColor());
+        graphics.setBackground(window.getBackground());
+        graphics.setFont(window.getFont());
+        return graphics;
+    }
+
+    BufferedImage image() {
+        return image;
+    }
+
+    // Queues the rectangle at (x,y) with size (w,h) in argb, blended by its alpha
+    void fillRect(double x, double y, double w, double h, int argb) {
+        if ((argb >>> 24) == 0 || !(w > 0 && h > 0)) return;
+        int c = add(FILL_RECT, argb, 4, x, x + w, y, y + h);
+        if (c < 0) return;
+        coords[c] = x;
+        coords[c + 1] = y;
+        coords[c + 2] = w;
+        coords[c + 3] = h;
+    }
+
+    // Queues the circle centred on (x,y) in argb, blended by its alpha
+    void fillCircle(double x, double y, double radius, int argb) {
+        if ((argb >>> 24) == 0 || !(radius > 0)) return;
+        int c = add(FILL_CIRCLE, argb, 3, x - radius, x + radius, y - radius, y + radius);
+        if (c < 0) return;
+        coords[c] = x;
+        coords[c + 1] = y;
+        coords[c + 2] = radius;
+    }
+
+    // Queues the polygon with n points (xs[i] + dx, ys[i] + dy) in argb, blended by its
+    // alpha. Uses the even-odd rule, like Graphics.fillPolygon.
+    void fillPolygon(int[] xs, int[] ys, int n, double dx, double dy, int argb) {
+        if ((argb >>> 24) == 0 || n < 3) return;
+        double minX = Double.MAX_VALUE, maxX = -Double.MAX_VALUE;
+        double minY = Double.MAX_VALUE, maxY = -Double.MAX_VALUE;
+        for (int i = 0; i < n; i++) {
+            minX = Math.min(minX, xs[i] + dx);
+            maxX = Math.max(maxX, xs[i] + dx);
+            minY = Math.min(minY, ys[i] + dy);
+            maxY = Math.max(maxY, ys[i] + dy);
+        }
+        int c = add(FILL_POLYGON, argb, 1 + n * 2, minX, maxX, minY, maxY);
+        if (c < 0) return;
+        coords[c] = n;
+        for (int i = 0; i < n; i++) {
+            coords[c + 1 + i * 2] = xs[i] + dx;
+            coords[c + 2 + i * 2] = ys[i] + dy;
+        }
+    }
+
+    // Queues a fill with the given bounds and returns the index of its first
+    // coordinate, or -1 if it is off the frame
+    private int add(int op, int argb, int coordsNeeded, double left, double right, double top, double bottom) {
+        left = Math.max(left, 0);
+        right = Math.min(right, width);
+        top = Math.max(top, 0);
+        bottom = Math.min(bottom, height);
+        if (!(left < right && top < bottom)) return -1;
+
+        if (count == ops.length) {
+            int capacity = count * 2;
+            ops = Arrays.copyOf(ops, capacity);
+            colors = Arrays.copyOf(colors, capacity);
+            firstCoords = Arrays.copyOf(firstCoords, capacity);
+            tops = Arrays.copyOf(tops, capacity);
+            bottoms = Arrays.copyOf(bottoms, capacity);
+        }
+        if (coordCount + coordsNeeded > coords.length) {
+            coords = Arrays.copyOf(coords, Math.max(coords.length * 2, coordCount + coordsNeeded));
+        }
+        int fill = count++;
+        ops[fill] = op;
+        colors[fill] = argb;
+        firstCoords[fill] = coordCount;
+        tops[fill] = (int) top;
+        bottoms[fill] = (int) Math.ceil(bottom);
+        queuedPixels += (long) ((right - left) * (bottom - top)) + 1;
+        int c = coordCount;
+        coordCount += coordsNeeded;
+        return c;
+    }
+
+    private void clearQueue() {
+        count = 0;
+        coordCount = 0;
+        queuedPixels = 0;
+    }
+
+    // Draws every queued fill and empties the queue
+    void flush() {
+        if (count == 0) return;
+        if (workers.length == 0 || queuedPixels < PARALLEL_MIN_PIXELS) {
+            Painter painter = painters[0];
+            for (int band = 0; band < bandCount; band++) painter.paintBand(band);
+        } else {
+            nextBand.set(0);
+            busyWorkers.set(workers.length);
+            flushingThread = Thread.currentThread();
+            // The volatile write hands the queue over to the workers
+            generation++;
+            for (Thread worker : workers) LockSupport.unpark(worker);
+            paintBands(painters[0]);
+            // Barrier: every worker has checked out, and the pixels it wrote are visible
+            while (busyWorkers.get() > 0) LockSupport.park(this);
+        }
+        clearQueue();
+    }
+
+    // Takes bands until there are none left
+    private void paintBands(Painter painter) {
+        int band;
+        while ((band = nextBand.getAndIncrement()) < bandCount) painter.paintBand(band);
+    }
+
+    // A worker's loop: wait for a flush, help with its bands, check out
+    private void work(Painter painter) {
+        int seen = 0;
+        while (true) {
+            while (generation == seen) LockSupport.park(this);
+            seen = generation;
+            paintBands(painter);
+            if (busyWorkers.decrementAndGet() == 0) LockSupport.unpark(flushingThread);
+        }
+    }
+
+    // Draws the queue one band at a time. Each thread has its own, for its scan state.
+    private final class Painter {
+        // Rows of the band being drawn: [bandTop, bandBottom)
+        int bandTop, bandBottom;
+
+        // Coverage changes along the row being filled: each pixel's coverage is the sum of
+        // the entries up to and including its own. Entries in use are [coverageMin, coverageMax].
+        int[] coverage = new int[1];
+        int coverageMin = Integer.MAX_VALUE, coverageMax = Integer.MIN_VALUE;
+        // The polygon being filled: its edges, and where a sample row crosses them
+        double[] edgeTop = new double[0], edgeBottom = new double[0];
+        double[] edgeX = new double[0], edgeSlope = new double[0];
+        double[] crossings = new double[0];
+
+        void paintBand(int band) {
+            bandTop = band * bandHeight;
+            bandBottom = Math.min(bandTop + bandHeight, height);
+            for (int fill = 0; fill < count; fill++) {
+                // Skip the fills that don't reach into this band
+                if (bottoms[fill] <= bandTop || tops[fill] >= bandBottom) continue;
+                int c = firstCoords[fill];
+                switch (ops[fill]) {
+                    case FILL_RECT:
+                        fillRect(coords[c], coords[c + 1], coords[c + 2], coords[c + 3], colors[fill]);
+                        break;
+                    case FILL_CIRCLE:
+                        fillCircle(coords[c], coords[c + 1], coords[c + 2], colors[fill]);
+                        break;
+                    default:
+                        fillPolygon(c + 1, (int) coords[c], colors[fill]);
+                        break;
+                }
+            }
+        }
+
+        void fillRect(double x, double y, double w, double h, int argb) {
+            int alpha = argb >>> 24;
+            double left = Math.max(x, 0), right = Math.min(x + w, width);
+            double top = Math.max(y, bandTop), bottom = Math.min(y + h, bandBottom);
+            if (!(left < right && top < bottom)) return;
+
+            // Pixels touched: columns [firstX, lastX], rows [firstY, lastY]
+            int firstX = (int) left, lastX = (int) Math.ceil(right) - 1;
+            int firstY = (int) top, lastY = (int) Math.ceil(bottom) - 1;
+            double leftCover = firstX == lastX ? right - left : firstX + 1 - left;
+            double rightCover = right - lastX;
+            for (int py = firstY; py <= lastY; py++) {
+                double rowCover = Math.min(py + 1, bottom) - Math.max(py, top);
+                double rowAlpha = alpha * rowCover;
+                int row = py * width;
+                blend(row + firstX, argb, (int) (rowAlpha * leftCover + 0.5));
+                if (firstX == lastX) continue;
+                fillSpan(row + firstX + 1, row + lastX, argb, (int) (rowAlpha + 0.5));
+                blend(row + lastX, argb, (int) (rowAlpha * rightCover + 0.5));
+            }
+        }
+
+        void fillCircle(double x, double y, double radius, int argb) {
+            int firstY = (int) Math.max(Math.floor(y - radius), bandTop);
+            int lastY = (int) Math.min(Math.ceil(y + radius), bandBottom) - 1;
+            double radiusSquared = radius * radius;
+            for (int py = firstY; py <= lastY; py++) {
+                for (int s = 0; s < SUBSAMPLES; s++) {
+                    double dy = py + (s + 0.5) / SUBSAMPLES - y;
+                    double halfWidth = radiusSquared - dy * dy;
+                    if (halfWidth <= 0) continue;
+                    halfWidth = Math.sqrt(halfWidth);
+                    addSpan(x - halfWidth, x + halfWidth);
+                }
+                resolveRow(py, argb);
+            }
+        }
+
+        // Fills the polygon whose n points start at coords[c], as x, y pairs
+        void fillPolygon(int c, int n, int argb) {
+            if (edgeTop.length < n) {
+                edgeTop = new double[n];
+                edgeBottom = new double[n];
+                edgeX = new double[n];
+                edgeSlope = new double[n];
+                crossings = new double[n];
+            }
+
+            // Non-horizontal edges, each as x at its top and x change per unit of y
+            int edges = 0;
+            double minY = Double.MAX_VALUE, maxY = -Double.MAX_VALUE;
+            for (int i = 0, j = n - 1; i < n; j = i++) {
+                double x0 = coords[c + j * 2], y0 = coords[c + j * 2 + 1];
+                double x1 = coords[c + i * 2], y1 = coords[c + i * 2 + 1];
+                if (y0 == y1) continue;
+                if (y0 > y1) {
+                    double t = x0; x0 = x1; x1 = t;
+                    t = y0; y0 = y1; y1 = t;
+                }
+                edgeTop[edges] = y0;
+                edgeBottom[edges] = y1;
+                edgeSlope[edges] = (x1 - x0) / (y1 - y0);
+                edgeX[edges] = x0;
+                edges++;
+                minY = Math.min(minY, y0);
+                maxY = Math.max(maxY, y1);
+            }
+            if (edges == 0) return;
+
+            int firstY = (int) Math.max(Math.floor(minY), bandTop);
+            int lastY = (int) Math.min(Math.ceil(maxY), bandBottom) - 1;
+            for (int py = firstY; py <= lastY; py++) {
+                for (int s = 0; s < SUBSAMPLES; s++) {
+                    double sampleY = py + (s + 0.5) / SUBSAMPLES;
+                    // Where each edge crosses the sample row, kept sorted
+                    int crossingCount = 0;
+                    for (int e = 0; e < edges; e++) {
+                        if (sampleY < edgeTop[e] || sampleY >= edgeBottom[e]) continue;
+                        double crossing = edgeX[e] + (sampleY - edgeTop[e]) * edgeSlope[e];
+                        int k = crossingCount++;
+                        while (k > 0 && crossings[k - 1] > crossing) {
+                            crossings[k] = crossings[k - 1];
+                            k--;
+                        }
+                        crossings[k] = crossing;
+                    }
+                    for (int k = 0; k + 1 < crossingCount; k += 2) addSpan(crossings[k], crossings[k + 1]);
+                }
+                resolveRow(py, argb);
+            }
+        }
+
+        // Adds one sample row's worth of coverage between x = left and x = right
+        private void addSpan(double left, double right) {
+            left = Math.max(left, 0);
+            right = Math.min(right, width);
+            if (!(left < right)) return;
+            addEdge(left, SAMPLE_WEIGHT);
+            addEdge(right, -SAMPLE_WEIGHT);
+        }
+
+        // Coverage starts (weight > 0) or stops (weight < 0) at x: the pixel x is in gets
+        // the part of weight right of x, and every pixel after it the whole of weight
+        private void addEdge(double x, int weight) {
+            int pixel = (int) x;
+            int inPixel = (int) Math.floor((pixel + 1 - x) * weight + 0.5);
+            coverage[pixel] += inPixel;
+            coverage[pixel + 1] += weight - inPixel;
+            coverageMin = Math.min(coverageMin, pixel);
+            coverageMax = Math.max(coverageMax, pixel + 1);
+        }
+
+        // Blends argb into row py by the coverage added so far, then clears the coverage
+        private void resolveRow(int py, int argb) {
+            if (coverageMin > coverageMax) return;
+            int alpha = argb >>> 24;
+            int row = py * width;
+            int last = Math.min(coverageMax, width - 1);
+            int cover = 0;
+            for (int i = coverageMin; i <= last; i++) {
+                cover += coverage[i];
+                coverage[i] = 0;
+                blend(row + i, argb, (alpha * Math.min(cover, FULL) + FULL / 2) / FULL);
+            }
+            // Entries past the right edge of the frame
+            for (int i = last + 1; i <= coverageMax; i++) coverage[i] = 0;
+            coverageMin = Integer.MAX_VALUE;
+            coverageMax = Integer.MIN_VALUE;
+        }
+    }
+
+    // Blends argb into pixels [from, to) at alpha a (0-255)
+    private void fillSpan(int from, int to, int argb, int a) {
+        if (a >= 255) {
+            Arrays.fill(pixels, from, to, argb | 0xFF000000);
+            return;
+        }
+        for (int i = from; i < to; i++) blend(i, argb, a);
+    }
+
+    // Blends argb's colour into pixel i at alpha a (0-255)
+    private void blend(int i, int argb, int a) {
+        if (a <= 0) return;
+        if (a >= 255) {
+            pixels[i] = argb | 0xFF000000;
+            return;
+        }
+        int dst = pixels[i];
+        int inverse = 255 - a;
+        int r = divideBy255(((argb >> 16) & 0xFF) * a + ((dst >> 16) & 0xFF) * inverse);
+        int g = divideBy255(((argb >> 8) & 0xFF) * a + ((dst >> 8) & 0xFF) * inverse);
+        int b = divideBy255((argb & 0xFF) * a + (dst & 0xFF) * inverse);
+        pixels[i] = 0xFF000000 | (r << 16) | (g << 8) | b;
+    }
+
+    // x / 255 rounded, for x in 0 to 255 * 255
+    private static int divideBy255(int x) {
+        x += 128;
+        return (x + (x >> 8)) >> 8;
+    }
+}
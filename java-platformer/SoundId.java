@@ -0,0 +1,21 @@
+// Identifies the synthesized sounds the audio engine can play
+final class SoundId {
+    public static final int CHORD = 0;                // Landing chord, picked from GameEngine.CHORDS
+    public static final int MID_AIR_JUMP = 1;
+    public static final int GROUND_JUMP_PUFF = 2;
+    public static final int GROUND_LANDING_PFFT = 3;
+    public static final int SHIELD_COLLECT = 4;
+    public static final int BOING = 5;
+    public static final int HIT = 6;
+    public static final int DEATH = 7;
+
+    public static final int COUNT = 8;
+
+    private static final String[] NAMES = {
+        "chord", "mid-air jump", "jump puff", "landing pfft", "shield collect", "boing", "hit", "death"
+    };
+
+    public static String name(int soundId) {
+        return (soundId >= 0 && soundId < COUNT) ? NAMES[soundId] : "unknown";
+    }
+}
@@ -0,0 +1,103 @@
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+
+// Small procedural sprites baked once into one shared image and blitted from there.
+// A sprite family is a set of same-sized frames of one effect, quantized
+// from its parameters: a fireball at each radius step, a power-up at each glow
+// phase. Drawing one of these becomes one blit instead of several antialiased fills.
+// Frames are baked through the normal GameEngine draw functions the first time
+// they are drawn. They are packed left to right in rows, and never removed; the
+// families are small and fixed. When the atlas is full, draw() returns false and
+// the caller draws the shape itself.
+// Frames are blitted at whole pixels, so a sprite can sit up to half a pixel from
+// where the fills would have put it.
+class SpriteAtlas {
+    static final int ATLAS_SIZE = 1024;
+
+    // Draws frame variant of a family with the sprite's top-left corner at (0, 0)
+    interface Painter {
+        void paint(GameEngine ge, int variant);
+    }
+
+    static final class Family {
+        final int width, height;
+        final Painter painter;
+        final int[] frameX, frameY; // Atlas position of each baked frame; -1 until baked
+
+        private Family(int width, int height, int variants, Painter painter) {
+            this.width = width;
+            this.height = height;
+            this.painter = painter;
+            this.frameX = new int[variants];
+            this.frameY = new int[variants];
+            Arrays.fill(frameX, -1);
+        }
+
+        int variants() {
+            return frameX.length;
+        }
+    }
+
+    private static final SpriteAtlas shared = new SpriteAtlas();
+
+    // The atlas all entities share
+    static SpriteAtlas shared() {
+        return shared;
+    }
+
+    private BufferedImage image;
+    private int rowX = 0, rowY = 0, rowHeight = 0;
+    private boolean full = false;
+
+    Family addFamily(int width, int height, int variants, Painter painter) {
+        return new Family(width, height, variants, painter);
+    }
+
+    // Draws frame variant of family with its top-left corner at (x, y), rounded to
+    // a whole pixel. Returns false, drawing nothing, if the frame doesn't fit in the atlas.
+    boolean draw(GameEngine ge, Family family, int variant, double x, double y) {
+        if (family.frameX[variant] < 0 && !bake(ge, family, variant)) return false;
+        ge.drawImage(image, Math.floor(x + 0.5), Math.floor(y + 0.5),
+                family.frameX[variant], family.frameY[variant], family.width, family.height);
+        return true;
+    }
+
+    private boolean bake(GameEngine ge, Family family, int variant) {
+        if (full) return false;
+        if (image == null) {
+            // Compatible images stay managed, so Java2D can cache them in video memory
+            image = ge.mGraphics.getDeviceConfiguration().createCompatibleImage(ATLAS_SIZE, ATLAS_SIZE, Transparency.TRANSLUCENT);
+        }
+
+        // Next free spot; a frame that doesn't fit on the current row starts a new one
+        if (rowX + family.width > ATLAS_SIZE) {
+            rowX = 0;
+            rowY += rowHeight;
+            rowHeight = 0;
+        }
+        if (family.width > ATLAS_SIZE || rowY + family.height > ATLAS_SIZE) {
+            full = true;
+            System.err.println("Sprite atlas is full; the remaining sprites are drawn directly.");
+            return false;
+        }
+        int x = rowX, y = rowY;
+        rowX += family.width;
+        rowHeight = Math.max(rowHeight, family.height);
+
+        Graphics2D g = image.createGraphics();
+        g.clipRect(x, y, family.width, family.height);
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g.translate(x, y);
+        ge.beginDrawingInto(g);
+        family.painter.paint(ge, variant);
+        ge.endDrawingInto();
+        g.dispose();
+
+        family.frameX[variant] = x;
+        family.frameY[variant] = y;
+        return true;
+    }
+}
@@ -0,0 +1,122 @@
+import java.io.File;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.FloatControl;
+import javax.sound.sampled.SourceDataLine;
+
+// AudioClip for long files such as music. Only the format and file name are
+// kept; while playing, a background thread decodes the file through a small
+// read-ahead buffer straight into its own output line, so the track is never
+// held in memory. GameEngine.loadAudio returns one of these for large files.
+class StreamingAudioClip extends GameEngine.AudioClip {
+    static final int READ_AHEAD_BYTES = 64 * 1024;
+    // Length for files whose header doesn't give one, e.g. some compressed formats
+    static final long UNKNOWN_LENGTH = AudioSystem.NOT_SPECIFIED;
+
+    private final File mFile;
+
+    private volatile Playback mPlayback;
+    private volatile float mVolume = 0.0f; // Decibels
+
+    // lengthBytes may be UNKNOWN_LENGTH; playback reads to the end of the file either way
+    public StreamingAudioClip(File file, AudioFormat format, long lengthBytes) {
+        super(format, lengthBytes);
+        mFile = file;
+    }
+
+    // Starts playing from the beginning, restarting if already playing
+    public synchronized boolean start(boolean loop, float volume) {
+        stop();
+        mVolume = volume;
+        Playback playback = new Playback(loop);
+        mPlayback = playback;
+        playback.thread.start();
+        return true;
+    }
+
+    public synchronized void stop() {
+        Playback playback = mPlayback;
+        if (playback == null) return;
+        playback.playing = false;
+        // Unblock a pending write
+        SourceDataLine line = playback.line;
+        if (line != null) {
+            line.stop();
+            line.flush();
+        }
+        try {
+            playback.thread.join(500);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        mPlayback = null;
+    }
+
+    public boolean isPlaying() {
+        Playback playback = mPlayback;
+        return playback != null && playback.playing;
+    }
+
+    @Override
+    public void setLoopVolume(float volume) {
+        mVolume = volume;
+        Playback playback = mPlayback;
+        if (playback != null) playback.applyVolume();
+    }
+
+    // One start() of the clip: its thread, line and buffer. A worker that outlives
+    // stop()'s join keeps to its own Playback, so it can't close the line or clear
+    // the state of the one started after it.
+    private class Playback implements Runnable {
+        final Thread thread;
+        final boolean looping;
+        volatile boolean playing = true;
+        volatile SourceDataLine line;
+
+        Playback(boolean looping) {
+            this.looping = looping;
+            thread = new Thread(this, "StreamingAudioClip " + mFile.getName());
+            thread.setDaemon(true);
+        }
+
+        void applyVolume() {
+            SourceDataLine line = this.line;
+            if (line != null && line.isControlSupported(FloatControl.Type.MASTER_GAIN)) {
+                ((FloatControl) line.getControl(FloatControl.Type.MASTER_GAIN)).setValue(mVolume);
+            }
+        }
+
+        @Override
+        public void run() {
+            byte[] readAhead = new byte[READ_AHEAD_BYTES];
+            SourceDataLine line = null;
+            try {
+                line = AudioSystem.getSourceDataLine(getAudioFormat());
+                line.open(getAudioFormat(), READ_AHEAD_BYTES);
+                this.line = line;
+                applyVolume();
+                line.start();
+
+                do {
+                    // Reopen the file for each pass; decoding only ever holds one buffer
+                    try (AudioInputStream in = AudioSystem.getAudioInputStream(mFile)) {
+                        int read;
+                        while (playing && (read = in.read(readAhead, 0, readAhead.length)) > 0) {
+                            line.write(readAhead, 0, read);
+                        }
+                    }
+                } while (playing && looping);
+
+                if (playing) line.drain();
+            } catch (Exception e) {
+                System.out.println("Error streaming Audio File " + mFile + ": " + e + "\n");
+            } finally {
+                this.line = null;
+                if (line != null) line.close();
+                playing = false;
+            }
+        }
+    }
+}
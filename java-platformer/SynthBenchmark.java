@@ -0,0 +1,196 @@
+import java.util.Arrays;
+
+// Compares the original additive Math.sin chord synthesis with the wavetable
+// block renderer SynthVoice uses now, then times each SynthKernels
+// implementation on one mix block. Run with:
+//   javac SynthBenchmark.java && java SynthBenchmark
+// To include the Vector API kernels:
+//   javac --add-modules jdk.incubator.vector VectorSynthKernels.java
+//   java --add-modules jdk.incubator.vector SynthBenchmark
+class SynthBenchmark {
+    private static final int DURATION_MS = 2000;
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int MEASURED_ROUNDS = 10;
+
+    public static void main(String[] args) {
+        int samplesPerChord = (int) ((DURATION_MS / 1000.0) * AudioMixer.SAMPLE_RATE);
+        long samplesPerRound = (long) samplesPerChord * GameEngine.CHORDS.length;
+
+        // Sink keeps the JIT from discarding the rendered buffers
+        long sink = 0;
+        for (int round = 0; round < WARMUP_ROUNDS; round++) {
+            sink += renderAllAdditive() + renderAllWavetable();
+        }
+
+        long additiveNanos = 0, wavetableNanos = 0;
+        for (int round = 0; round < MEASURED_ROUNDS; round++) {
+            long start = System.nanoTime();
+            sink += renderAllAdditive();
+            additiveNanos += System.nanoTime() - start;
+
+            start = System.nanoTime();
+            sink += renderAllWavetable();
+            wavetableNanos += System.nanoTime() - start;
+        }
+
+        double additivePerSample = (double) additiveNanos / (MEASURED_ROUNDS * samplesPerRound);
+        double wavetablePerSample = (double) wavetableNanos / (MEASURED_ROUNDS * samplesPerRound);
+        System.out.printf("Additive Math.sin: %8.2f ns/sample%n", additivePerSample);
+        System.out.printf("Wavetable:         %8.2f ns/sample%n", wavetablePerSample);
+        System.out.printf("Speedup:           %8.2fx%n", additivePerSample / wavetablePerSample);
+
+        // The two renderers should produce (nearly) the same 8-bit output
+        int maxDifference = 0;
+        for (int chordIndex = 0; chordIndex < GameEngine.CHORDS.length; chordIndex++) {
+            byte[] a = renderAdditive(GameEngine.CHORDS[chordIndex], DURATION_MS);
+            byte[] b = SynthVoice.renderToBuffer(SoundId.CHORD, chordIndex, DURATION_MS);
+            for (int i = 0; i < a.length; i++) {
+                maxDifference = Math.max(maxDifference, Math.abs(a[i] - b[i]));
+            }
+        }
+        System.out.println("Max sample difference: " + maxDifference + " (8-bit steps)");
+        System.out.println("Chord renderer using " + SynthKernels.get().getName() + " kernels");
+        System.out.println("(checksum " + sink + ")");
+
+        System.out.println();
+        benchmarkKernels(new ScalarSynthKernels());
+        try {
+            benchmarkKernels((SynthKernels) Class.forName("VectorSynthKernels").getDeclaredConstructor().newInstance());
+        } catch (Exception | LinkageError e) {
+            System.out.println("Vector kernels unavailable (" + e + ")");
+        }
+    }
+
+    private static final int KERNEL_ROUNDS = 200000;
+
+    // Times each kernel on one mix block, as the mixer calls them
+    private static void benchmarkKernels(SynthKernels kernels) {
+        int frames = AudioMixer.BLOCK_FRAMES;
+        float[] table = Wavetable.SAW_5.tableFor(220.0);
+        float[] a = new float[frames];
+        float[] b = new float[frames];
+        int[] noise = SynthKernels.newNoiseState(1);
+        double increment = 220.0 / AudioMixer.SAMPLE_RATE;
+
+        System.out.println("Kernels: " + kernels.getName());
+        for (int pass = 0; pass < 2; pass++) { // First pass warms up the JIT
+            boolean report = pass == 1;
+            double phase = 0.0;
+            long start = System.nanoTime();
+            for (int r = 0; r < KERNEL_ROUNDS; r++) {
+                phase = kernels.addOscillator(table, phase, increment, 0.5f, a, 0, frames);
+            }
+            printKernel(report, "oscillator", start, frames);
+
+            start = System.nanoTime();
+            for (int r = 0; r < KERNEL_ROUNDS; r++) {
+                kernels.applyRamp(a, 0, frames, 1.0f, 0.0f); // Unity gain keeps values from going denormal
+            }
+            printKernel(report, "envelope ramp", start, frames);
+
+            // Decays a fresh copy each round so the block doesn't shrink into denormals;
+            // the copy is timed too, and is a small part of the total
+            float tail = 0.0f;
+            start = System.nanoTime();
+            for (int r = 0; r < KERNEL_ROUNDS; r++) {
+                System.arraycopy(a, 0, b, 0, frames);
+                kernels.applyDecay(b, 0, frames, 0.9f, 0.99997f);
+                tail += b[frames - 1];
+            }
+            printKernel(report, "envelope decay", start, frames);
+            if (Float.isNaN(tail)) System.out.println(tail);
+
+            start = System.nanoTime();
+            for (int r = 0; r < KERNEL_ROUNDS; r++) {
+                kernels.fillNoise(noise, b, 0, frames, 40.0f);
+            }
+            printKernel(report, "noise", start, frames);
+
+            float peak = 0.0f;
+            start = System.nanoTime();
+            for (int r = 0; r < KERNEL_ROUNDS; r++) {
+                Arrays.fill(a, 0.0f);
+                peak += kernels.mix(b, a, 0, frames, 1.0f / 128);
+            }
+            printKernel(report, "mix", start, frames);
+            if (peak < 0) System.out.println(peak);
+        }
+    }
+
+    private static void printKernel(boolean report, String name, long startNanos, int frames) {
+        if (!report) return;
+        double nsPerSample = (double) (System.nanoTime() - startNanos) / ((long) KERNEL_ROUNDS * frames);
+        System.out.printf("  %-15s %6.3f ns/sample%n", name, nsPerSample);
+    }
+
+    private static long renderAllAdditive() {
+        long sum = 0;
+        for (double[] chord : GameEngine.CHORDS) {
+            sum += renderAdditive(chord, DURATION_MS)[1000];
+        }
+        return sum;
+    }
+
+    private static long renderAllWavetable() {
+        long sum = 0;
+        for (int chordIndex = 0; chordIndex < GameEngine.CHORDS.length; chordIndex++) {
+            sum += SynthVoice.renderToBuffer(SoundId.CHORD, chordIndex, DURATION_MS)[1000];
+        }
+        return sum;
+    }
+
+    // The chord renderer as it was before the wavetable engine, kept as the baseline
+    private static byte[] renderAdditive(double[] currentChordFreqs, int durationMs) {
+        float sampleRate = AudioMixer.SAMPLE_RATE;
+        int numSamples = (int) ((durationMs / 1000.0) * sampleRate);
+        byte[] buf = new byte[numSamples];
+
+        float attackTimeSec = 0.008f * (durationMs / 1000.0f);
+        float decayTimeSec = 0.15f * (durationMs / 1000.0f);
+        float sustainLevel = 0.70f;
+        float releaseTimeSec = 0.25f * (durationMs / 1000.0f);
+
+        double detuneFactor = 1.006;
+        double harmonicNormalization = 1.0 + 1.0/2.0 + 1.0/3.0 + 1.0/4.0 + 1.0/5.0;
+
+        for (int i = 0; i < numSamples; i++) {
+            double currentTimeSec = (double) i / sampleRate;
+            double combinedSampleValue = 0.0;
+
+            for (int noteIndex = 0; noteIndex < currentChordFreqs.length; noteIndex++) {
+                double noteFreq1 = currentChordFreqs[noteIndex];
+                double noteFreq2 = noteFreq1 * detuneFactor;
+
+                double angle1 = currentTimeSec * noteFreq1 * 2.0 * Math.PI;
+                double angle2 = currentTimeSec * noteFreq2 * 2.0 * Math.PI;
+
+                double osc1Saw = 0.0;
+                double osc2Saw = 0.0;
+                for (int k = 1; k <= 5; k++) {
+                    osc1Saw += (1.0/k) * Math.sin(k * angle1);
+                    osc2Saw += (1.0/k) * Math.sin(k * angle2);
+                }
+                osc1Saw /= harmonicNormalization;
+                osc2Saw /= harmonicNormalization;
+
+                combinedSampleValue += (osc1Saw + osc2Saw) * 0.5;
+            }
+
+            double amplitudeMultiplier;
+            if (currentTimeSec < attackTimeSec) {
+                amplitudeMultiplier = (attackTimeSec > 0.0001) ? currentTimeSec / attackTimeSec : 1.0;
+            } else if (currentTimeSec < attackTimeSec + decayTimeSec) {
+                amplitudeMultiplier = 1.0 - ((currentTimeSec - attackTimeSec) / decayTimeSec) * (1.0 - sustainLevel);
+            } else if (currentTimeSec < (durationMs / 1000.0f) - releaseTimeSec) {
+                amplitudeMultiplier = sustainLevel;
+            } else {
+                double timeIntoRelease = currentTimeSec - ((durationMs / 1000.0f) - releaseTimeSec);
+                amplitudeMultiplier = (releaseTimeSec > 0.001) ? sustainLevel * (1.0 - (timeIntoRelease / releaseTimeSec)) : 0;
+            }
+
+            amplitudeMultiplier = Math.max(0.0, Math.min(1.0, amplitudeMultiplier));
+            buf[i] = (byte) (combinedSampleValue * amplitudeMultiplier * 22);
+        }
+        return buf;
+    }
+}
@@ -0,0 +1,63 @@
+// The inner loops of the synth, behind one interface so a SIMD implementation
+// can replace the plain Java loops. get() picks the implementation once at
+// startup: ScalarSynthKernels unless -Dsynth.kernels=vector is given and the
+// jdk.incubator.vector module is present (run with --add-modules jdk.incubator.vector).
+// The vector oscillator measured slower than the scalar one on some machines, so
+// it is opt-in; SynthBenchmark times both.
+// Both implementations produce the same noise sequence, and their other output
+// differs only in float rounding.
+abstract class SynthKernels {
+    // Noise is generated as this many interleaved xorshift streams, one per lane
+    static final int NOISE_STREAMS = 8;
+
+    private static final SynthKernels INSTANCE = select();
+
+    static SynthKernels get() {
+        return INSTANCE;
+    }
+
+    private static SynthKernels select() {
+        if ("vector".equals(System.getProperty("synth.kernels"))) {
+            try {
+                return (SynthKernels) Class.forName("VectorSynthKernels").getDeclaredConstructor().newInstance();
+            } catch (Exception | LinkageError e) {
+                // Vector API not available; fall through to the scalar loops
+            }
+        }
+        return new ScalarSynthKernels();
+    }
+
+    abstract String getName();
+
+    // Adds gain * table(phase + k * increment) to out[from + k] for k < frames and
+    // returns the phase after the last sample. Phases are in cycles.
+    abstract double addOscillator(float[] table, double phase, double increment, float gain,
+                                  float[] out, int from, int frames);
+
+    // Multiplies buf[from + k] by the line start + k * step
+    abstract void applyRamp(float[] buf, int from, int frames, float start, float step);
+
+    // Multiplies buf[from + k] by the exponential start * ratio^k
+    abstract void applyDecay(float[] buf, int from, int frames, float start, float ratio);
+
+    // Writes uniform noise in [-amplitude, amplitude) to out[from..]. Sample k
+    // comes from stream k % NOISE_STREAMS; every started group of NOISE_STREAMS
+    // samples advances all streams once.
+    abstract void fillNoise(int[] state, float[] out, int from, int frames, float amplitude);
+
+    // Adds src[k] * scale to dst[dstFrom + k] and returns the peak |src[k] * scale|
+    abstract float mix(float[] src, float[] dst, int dstFrom, int frames, float scale);
+
+    // Seeds NOISE_STREAMS independent, non-zero xorshift states
+    static int[] newNoiseState(int seed) {
+        int[] state = new int[NOISE_STREAMS];
+        for (int i = 0; i < NOISE_STREAMS; i++) {
+            int x = seed + 0x9E3779B9 * (i + 1);
+            x ^= x >>> 16;
+            x *= 0x85EBCA6B;
+            x ^= x >>> 13;
+            state[i] = x != 0 ? x : 1;
+        }
+        return state;
+    }
+}
@@ -0,0 +1,358 @@
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// One reusable playing sound. Voices are preallocated by the VoiceAllocator and
+// render incrementally into a caller-supplied block, so a sound is heard after
+// one mix block and playing it allocates nothing.
+// Sample values use the signed 8-bit scale the original generators produced.
+class SynthVoice {
+    private static final float SAMPLE_RATE = AudioMixer.SAMPLE_RATE;
+    private static final int MAX_CHORD_NOTES = 4;
+    private static final double DETUNE_FACTOR = 1.006;
+    // Sine phase offsets below are given in radians; lookups take cycles
+    private static final double TWO_PI = 2.0 * Math.PI;
+
+    int soundId = -1;
+    int chordIndex = -1;
+    int coalesceKey = -1;   // Voices sharing a key >= 0 retrigger instead of stacking
+    float gain = 1.0f;
+    long startFrame = 0;    // Mixer frame of the first sample; may be in a later block
+    float level = 0.0f;     // Peak output level of the last mixed block
+
+    // Chord quality, see AudioGovernor. Set by the mixer before each block.
+    int qualityTier = AudioGovernor.TIER_FULL;
+
+    // Latency bookkeeping, see LatencyStats
+    long triggerNanos = 0;
+    long drainNanos = 0;
+    boolean latencyPending = false; // Set until the first sample has been mixed
+
+    private int position = 0;
+    private int lengthFrames = 0;
+    private byte[] pcm = null; // Pre-rendered samples, played instead of synthesizing
+
+    // Chord state
+    private final Oscillator[] osc1 = new Oscillator[MAX_CHORD_NOTES];
+    private final Oscillator[] osc2 = new Oscillator[MAX_CHORD_NOTES];
+    private int noteCount = 0;
+    private final float[] decimated = new float[AudioMixer.BLOCK_FRAMES / 2 + 2]; // Half-rate scratch
+    private float attackTimeSec, decayTimeSec, releaseTimeSec, totalTimeSec;
+    private static final float SUSTAIN_LEVEL = 0.70f;
+
+    // Effect state
+    private double accumulatedPhase = 0; // In cycles
+    // Noise generators carry over between sounds. Seeds only depend on the order
+    // voices are created in, so offline renders repeat exactly.
+    private static final AtomicInteger nextNoiseSeed = new AtomicInteger(0x2545F491);
+    private int noiseState = nextNoiseSeed.getAndIncrement() | 1;
+    private final int[] noiseStreams = SynthKernels.newNoiseState(noiseState);
+
+    SynthVoice() {
+        for (int i = 0; i < MAX_CHORD_NOTES; i++) {
+            osc1[i] = new Oscillator(Wavetable.SAW_5);
+            osc2[i] = new Oscillator(Wavetable.SAW_5);
+        }
+    }
+
+    // Length of each effect; chords take their duration from the caller
+    static int durationMsFor(int soundId) {
+        switch (soundId) {
+            case SoundId.MID_AIR_JUMP: return 180;
+            case SoundId.GROUND_JUMP_PUFF: return 120;
+            case SoundId.GROUND_LANDING_PFFT: return 90;
+            case SoundId.SHIELD_COLLECT: return 200;
+            case SoundId.BOING: return 250;
+            case SoundId.HIT: return 180;
+            case SoundId.DEATH: return 800;
+            default: return 0;
+        }
+    }
+
+    // Restarts this voice as a synthesized sound
+    void start(int soundId, int chordIndex, int durationMs, float gain) {
+        this.soundId = soundId;
+        this.chordIndex = chordIndex;
+        this.gain = gain;
+        this.level = gain;
+        this.pcm = null;
+        this.position = 0;
+        this.accumulatedPhase = 0;
+
+        if (soundId != SoundId.CHORD) {
+            durationMs = durationMsFor(soundId);
+        }
+        this.lengthFrames = (int) ((durationMs / 1000.0) * SAMPLE_RATE);
+
+        if (soundId == SoundId.CHORD) {
+            double[] frequencies = GameEngine.CHORDS[chordIndex];
+            noteCount = Math.min(MAX_CHORD_NOTES, frequencies.length);
+            for (int n = 0; n < noteCount; n++) {
+                osc1[n].setFrequency(frequencies[n]);
+                osc1[n].resetPhase(0);
+                osc2[n].setFrequency(frequencies[n] * DETUNE_FACTOR);
+                osc2[n].resetPhase(0);
+            }
+            totalTimeSec = durationMs / 1000.0f;
+            attackTimeSec = 0.008f * totalTimeSec;
+            decayTimeSec = 0.15f * totalTimeSec;
+            releaseTimeSec = 0.25f * totalTimeSec;
+        }
+    }
+
+    // Restarts this voice playing already rendered samples
+    void startPcm(int soundId, int chordIndex, byte[] samples, float gain) {
+        this.soundId = soundId;
+        this.chordIndex = chordIndex;
+        this.gain = gain;
+        this.level = gain;
+        this.pcm = samples;
+        this.position = 0;
+        this.lengthFrames = samples.length;
+    }
+
+    boolean isFinished() {
+        return position >= lengthFrames;
+    }
+
+    // Writes up to maxFrames samples into out[0..] and returns how many were written
+    int renderBlock(float[] out, int maxFrames) {
+        int frames = Math.min(maxFrames, lengthFrames - position);
+        if (frames <= 0) return 0;
+
+        if (pcm != null) {
+            for (int j = 0; j < frames; j++) {
+                out[j] = pcm[position + j];
+            }
+        } else {
+            switch (soundId) {
+                case SoundId.CHORD: renderChord(out, frames); break;
+                case SoundId.MID_AIR_JUMP: renderMidAirJump(out, frames); break;
+                case SoundId.GROUND_JUMP_PUFF: renderGroundJumpPuff(out, frames); break;
+                case SoundId.GROUND_LANDING_PFFT: renderGroundLandingPfft(out, frames); break;
+                case SoundId.SHIELD_COLLECT: renderShieldCollect(out, frames); break;
+                case SoundId.BOING: renderBoing(out, frames); break;
+                case SoundId.HIT: renderHit(out, frames); break;
+                case SoundId.DEATH: renderDeath(out, frames); break;
+                default: Arrays.fill(out, 0, frames, 0.0f); break;
+            }
+        }
+        position += frames;
+        return frames;
+    }
+
+    // Renders a whole sound into a new 8-bit buffer, for caching
+    static byte[] renderToBuffer(int soundId, int chordIndex, int durationMs) {
+        SynthVoice voice = new SynthVoice();
+        voice.start(soundId, chordIndex, durationMs, 1.0f);
+        byte[] buf = new byte[voice.lengthFrames];
+        float[] block = new float[AudioMixer.BLOCK_FRAMES];
+        int written = 0;
+        int frames;
+        while ((frames = voice.renderBlock(block, block.length)) > 0) {
+            for (int j = 0; j < frames; j++) {
+                buf[written + j] = (byte) block[j];
+            }
+            written += frames;
+        }
+        return buf;
+    }
+
+    // Uniform noise in [0, 1)
+    private double nextNoiseDouble() {
+        int x = noiseState;
+        x ^= x << 13;
+        x ^= x >>> 17;
+        x ^= x << 5;
+        noiseState = x;
+        return (x >>> 8) / (double) (1 << 24);
+    }
+
+    // Detuned band-limited saws with an ADSR envelope
+    private void renderChord(float[] out, int frames) {
+        Arrays.fill(out, 0, frames, 0.0f);
+        if (qualityTier == AudioGovernor.TIER_HALF_RATE && frames <= 2 * (decimated.length - 1)) {
+            renderChordHalfRate(out, frames);
+        } else {
+            boolean detune = qualityTier == AudioGovernor.TIER_FULL;
+            for (int n = 0; n < noteCount; n++) {
+                if (detune) {
+                    // Average the two detuned oscillators for this note
+                    osc1[n].addTo(out, 0, frames, 0.5f);
+                    osc2[n].addTo(out, 0, frames, 0.5f);
+                } else {
+                    osc1[n].addTo(out, 0, frames, 1.0f);
+                    osc2[n].skip(frames); // Keep phase so detune fades back in smoothly
+                }
+            }
+        }
+
+        // Every ADSR stage is a straight line, so the envelope is applied one
+        // stage at a time as a ramp. Max combined value is approx the number of
+        // notes, so 22 keeps it inside 8 bits.
+        SynthKernels kernels = SynthKernels.get();
+        int j = 0;
+        while (j < frames) {
+            int i = position + j;
+            double currentTimeSec = (double) i / SAMPLE_RATE;
+            double level, slopePerSec, stageEndSec;
+            if (currentTimeSec < attackTimeSec) {
+                boolean hasAttack = attackTimeSec > 0.0001;
+                level = hasAttack ? currentTimeSec / attackTimeSec : 1.0;
+                slopePerSec = hasAttack ? 1.0 / attackTimeSec : 0.0;
+                stageEndSec = attackTimeSec;
+            } else if (currentTimeSec < attackTimeSec + decayTimeSec) {
+                level = 1.0 - ((currentTimeSec - attackTimeSec) / decayTimeSec) * (1.0 - SUSTAIN_LEVEL);
+                slopePerSec = -(1.0 - SUSTAIN_LEVEL) / decayTimeSec;
+                stageEndSec = attackTimeSec + decayTimeSec;
+            } else if (currentTimeSec < totalTimeSec - releaseTimeSec) {
+                level = SUSTAIN_LEVEL;
+                slopePerSec = 0.0;
+                stageEndSec = totalTimeSec - releaseTimeSec;
+            } else {
+                boolean hasRelease = releaseTimeSec > 0.001;
+                double timeIntoRelease = currentTimeSec - (totalTimeSec - releaseTimeSec);
+                level = hasRelease ? SUSTAIN_LEVEL * (1.0 - (timeIntoRelease / releaseTimeSec)) : 0.0;
+                slopePerSec = hasRelease ? -SUSTAIN_LEVEL / releaseTimeSec : 0.0;
+                stageEndSec = totalTimeSec;
+            }
+            int stageEnd = (int) Math.ceil(stageEndSec * SAMPLE_RATE);
+            int count = Math.min(frames - j, Math.max(1, stageEnd - i));
+            kernels.applyRamp(out, j, count, (float) (level * 22), (float) (slopePerSec / SAMPLE_RATE * 22));
+            j += count;
+        }
+    }
+
+    // One oscillator per note at half the sample rate, linearly interpolated up
+    private void renderChordHalfRate(float[] out, int frames) {
+        int count = frames / 2 + 1; // Covers frames 0, 2, ... up to at least frames - 1
+        Arrays.fill(decimated, 0, count, 0.0f);
+        for (int n = 0; n < noteCount; n++) {
+            osc1[n].addDecimatedTo(decimated, count, 1.0f, 2, frames);
+            osc2[n].skip(frames);
+        }
+        for (int j = 0; j < frames; j++) {
+            int k = j >> 1;
+            out[j] = (j & 1) == 0 ? decimated[k] : (decimated[k] + decimated[k + 1]) * 0.5f;
+        }
+    }
+
+    private void renderMidAirJump(float[] out, int frames) {
+        Wavetable sine = Wavetable.SINE;
+        double startFreq = 380; double endFreq = 250;
+        for (int j = 0; j < frames; j++) {
+            int i = position + j;
+            double progress = (double) i / lengthFrames;
+            double currentFreq = startFreq - Math.pow(progress, 0.6) * (startFreq - endFreq);
+            double phase = i / (SAMPLE_RATE / currentFreq); // In cycles
+            double sampleValue = 0.7 * sine.valueAt(phase) + 0.3 * sine.valueAt(1.8 * phase + 0.15 / TWO_PI);
+            double envelope;
+            if (progress < 0.1) { envelope = progress / 0.1; }
+            else { envelope = Math.exp(-(progress - 0.1) * 12.0); }
+            envelope = Math.max(0, Math.min(1, envelope));
+            out[j] = (float) (sampleValue * 60 * envelope);
+        }
+    }
+
+    private void renderGroundJumpPuff(float[] out, int frames) {
+        SynthKernels kernels = SynthKernels.get();
+        kernels.fillNoise(noiseStreams, out, 0, frames, 40.0f);
+        // exp(-progress * 7) shrinks by the same ratio every sample
+        double startProgress = (double) position / lengthFrames;
+        kernels.applyDecay(out, 0, frames, (float) (Math.exp(-startProgress * 7.0) * 0.30),
+                (float) Math.exp(-7.0 / lengthFrames));
+        for (int j = 0; j < frames; j++) {
+            double progress = (double) (position + j) / lengthFrames;
+            out[j] *= Wavetable.SINE.valueAt(progress * 0.45 + 0.025);
+        }
+    }
+
+    private void renderGroundLandingPfft(float[] out, int frames) {
+        SynthKernels kernels = SynthKernels.get();
+        kernels.fillNoise(noiseStreams, out, 0, frames, 40.0f);
+        // Linear attack over the first 5%, then exp(-(progress - 0.05) * 25)
+        double attackFrames = 0.05 * lengthFrames;
+        int attackEnd = (int) Math.ceil(attackFrames);
+        int j = 0;
+        if (position < attackEnd) {
+            j = Math.min(frames, attackEnd - position);
+            kernels.applyRamp(out, 0, j, (float) (position / attackFrames * 0.20), (float) (0.20 / attackFrames));
+        }
+        if (j < frames) {
+            double progress = (double) (position + j) / lengthFrames;
+            kernels.applyDecay(out, j, frames - j, (float) (Math.exp(-(progress - 0.05) * 25.0) * 0.20),
+                    (float) Math.exp(-25.0 / lengthFrames));
+        }
+    }
+
+    private void renderShieldCollect(float[] out, int frames) {
+        Wavetable sine = Wavetable.SINE;
+        double startFreq = 350; double endFreq = 120; double sweepPower = 0.6;
+        for (int j = 0; j < frames; j++) {
+            int i = position + j;
+            double progress = (double) i / lengthFrames;
+            double currentFreq = startFreq - Math.pow(progress, sweepPower) * (startFreq - endFreq);
+            double phase = i / (SAMPLE_RATE / currentFreq); // In cycles
+            double modulator = sine.valueAt(progress * 12);
+            double sampleValue = sine.valueAt(phase + modulator * 0.08 / TWO_PI) * (1.0 - progress * 0.4);
+            double envelope;
+            if (progress < 0.08) { envelope = progress / 0.08; }
+            else if (progress < 0.6) { envelope = 1.0 - (progress - 0.08) * 0.4; }
+            else { envelope = (1.0 - (progress - 0.6) / 0.4) * 0.6; }
+            envelope = Math.max(0, Math.min(1, envelope));
+            out[j] = (float) (sampleValue * 75 * envelope);
+        }
+    }
+
+    private void renderBoing(float[] out, int frames) {
+        Wavetable sine = Wavetable.SINE;
+        double startFreq = 120; double peakFreq = 550; double endFreq = 120;
+        for (int j = 0; j < frames; j++) {
+            int i = position + j;
+            double progress = (double) i / lengthFrames;
+            double currentFreq;
+            if (progress < 0.25) { currentFreq = startFreq + (peakFreq - startFreq) * (progress / 0.25); }
+            else { currentFreq = peakFreq - (peakFreq - endFreq) * ((progress - 0.25) / 0.75); }
+            currentFreq = Math.max(20, currentFreq);
+            double phase = i / (SAMPLE_RATE / currentFreq); // In cycles
+            double sampleValue = 0.6 * sine.valueAt(phase) + 0.25 * sine.valueAt(1.9 * phase) + 0.15 * sine.valueAt(0.55 * phase + 0.1 / TWO_PI);
+            double envelope;
+            if (progress < 0.03) { envelope = progress / 0.03; }
+            else { envelope = Math.exp(-(progress - 0.03) * 9.0); }
+            envelope = Math.max(0, Math.min(1, envelope));
+            out[j] = (float) (sampleValue * 80 * envelope);
+        }
+    }
+
+    private void renderHit(float[] out, int frames) {
+        Wavetable sine = Wavetable.SINE;
+        double baseFreq = 90; double noiseFactor = 0.4;
+        for (int j = 0; j < frames; j++) {
+            double time = (double) (position + j) / SAMPLE_RATE;
+            double envelope = Math.exp(-time * 30.0);
+            double sineWave = sine.valueAt(baseFreq * time * (1 + 0.3 * sine.valueAt(5 * time + 0.1 / TWO_PI)));
+            double squarePhase = baseFreq * 0.5 * time;
+            double squareWaveIsh = ((squarePhase - Math.floor(squarePhase)) < 0.5 ? 1 : -1) * 0.3;
+            double noise = (nextNoiseDouble() * 2.0 - 1.0) * noiseFactor;
+            out[j] = (float) ((sineWave * (1 - noiseFactor - 0.1) + squareWaveIsh + noise) * 85 * envelope);
+        }
+    }
+
+    private void renderDeath(float[] out, int frames) {
+        Wavetable sine = Wavetable.SINE;
+        double startFreq = 700; double endFreq = 60;
+        for (int j = 0; j < frames; j++) {
+            double progress = (double) (position + j) / lengthFrames;
+            double currentFreq = startFreq * Math.pow(endFreq / startFreq, progress * progress);
+
+            accumulatedPhase += currentFreq / SAMPLE_RATE;
+            if (accumulatedPhase > 1.0) accumulatedPhase -= 1.0;
+
+            double sampleValue = 0.4 * sine.valueAt(accumulatedPhase)
+                               + 0.2 * sine.valueAt(2 * accumulatedPhase + 0.5 / TWO_PI)
+                               + 0.15 * sine.valueAt(3 * accumulatedPhase + 1.0 / TWO_PI)
+                               + 0.1 * (nextNoiseDouble() * 0.5 - 0.25);
+            double envelope = Math.pow(1.0 - progress, 0.75);
+            out[j] = (float) (sampleValue * 90 * envelope);
+        }
+    }
+}
@@ -0,0 +1,145 @@
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+// SIMD versions of the synth kernels using the incubating Vector API.
+// Needs the module at compile and run time:
+//   javac --add-modules jdk.incubator.vector VectorSynthKernels.java
+//   java --add-modules jdk.incubator.vector -Dsynth.kernels=vector PlatformerGame
+// SynthKernels loads this class by name, so the rest of the game builds without it.
+class VectorSynthKernels extends SynthKernels {
+    private static final VectorSpecies<Float> FLOATS = FloatVector.SPECIES_PREFERRED;
+    private static final int LANES = FLOATS.length();
+
+    // Noise always runs NOISE_STREAMS lanes wide so it matches the scalar streams
+    private static final VectorSpecies<Integer> NOISE_INTS = IntVector.SPECIES_256;
+    private static final VectorSpecies<Float> NOISE_FLOATS = FloatVector.SPECIES_256;
+
+    private static final FloatVector LANE_INDEX = FloatVector.fromArray(FLOATS, laneIndices(), 0);
+
+    // Gathers need their indices in an int[]; one per thread since the mixer and
+    // the chord cache renderer both synthesize
+    private final ThreadLocal<int[]> gatherIndices = ThreadLocal.withInitial(() -> new int[LANES]);
+
+    private static float[] laneIndices() {
+        float[] indices = new float[LANES];
+        for (int i = 0; i < LANES; i++) indices[i] = i;
+        return indices;
+    }
+
+    @Override
+    String getName() {
+        return "vector (" + LANES + " x float)";
+    }
+
+    @Override
+    double addOscillator(float[] table, double phase, double increment, float gain,
+                         float[] out, int from, int frames) {
+        int[] indices = gatherIndices.get();
+        FloatVector laneOffsets = LANE_INDEX.mul((float) increment);
+        int bound = FLOATS.loopBound(frames);
+        int k = 0;
+        for (; k < bound; k += LANES) {
+            // Each chunk restarts from a double phase so float error never accumulates
+            double chunkPhase = phase + k * increment;
+            chunkPhase -= Math.floor(chunkPhase);
+            FloatVector p = laneOffsets.add((float) chunkPhase);
+            p = p.sub((FloatVector) p.convert(VectorOperators.F2I, 0).convert(VectorOperators.I2F, 0));
+            FloatVector position = p.mul(Wavetable.TABLE_SIZE);
+            IntVector index = (IntVector) position.convert(VectorOperators.F2I, 0);
+            // Lanes that round up to exactly 1.0 cycle read the guard sample
+            index = index.min(Wavetable.TABLE_SIZE - 1);
+            FloatVector fraction = position.sub((FloatVector) index.convert(VectorOperators.I2F, 0));
+            index.intoArray(indices, 0);
+
+            FloatVector a = FloatVector.fromArray(FLOATS, table, 0, indices, 0);
+            FloatVector b = FloatVector.fromArray(FLOATS, table, 1, indices, 0);
+            FloatVector value = b.sub(a).fma(fraction, a);
+            value.mul(gain).add(FloatVector.fromArray(FLOATS, out, from + k)).intoArray(out, from + k);
+        }
+
+        double tailPhase = phase + k * increment;
+        tailPhase -= Math.floor(tailPhase);
+        for (; k < frames; k++) {
+            out[from + k] += gain * Wavetable.lookup(table, tailPhase);
+            tailPhase += increment;
+            if (tailPhase >= 1.0) tailPhase -= 1.0;
+        }
+
+        double end = phase + frames * increment;
+        return end - Math.floor(end);
+    }
+
+    @Override
+    void applyRamp(float[] buf, int from, int frames, float start, float step) {
+        FloatVector ramp = LANE_INDEX.mul(step).add(start);
+        int bound = FLOATS.loopBound(frames);
+        int k = 0;
+        for (; k < bound; k += LANES) {
+            FloatVector.fromArray(FLOATS, buf, from + k).mul(ramp.add(k * step)).intoArray(buf, from + k);
+        }
+        for (; k < frames; k++) {
+            buf[from + k] *= start + k * step;
+        }
+    }
+
+    @Override
+    void applyDecay(float[] buf, int from, int frames, float start, float ratio) {
+        FloatVector envelope = FloatVector.zero(FLOATS);
+        float lanePower = start;
+        for (int lane = 0; lane < LANES; lane++) {
+            envelope = envelope.withLane(lane, lanePower);
+            lanePower *= ratio;
+        }
+        float chunkRatio = (float) Math.pow(ratio, LANES);
+        int bound = FLOATS.loopBound(frames);
+        int k = 0;
+        for (; k < bound; k += LANES) {
+            FloatVector.fromArray(FLOATS, buf, from + k).mul(envelope).intoArray(buf, from + k);
+            envelope = envelope.mul(chunkRatio);
+        }
+        float tail = envelope.lane(0);
+        for (; k < frames; k++) {
+            buf[from + k] *= tail;
+            tail *= ratio;
+        }
+    }
+
+    @Override
+    void fillNoise(int[] state, float[] out, int from, int frames, float amplitude) {
+        float scale = amplitude * 2.0f / (1 << 24);
+        IntVector x = IntVector.fromArray(NOISE_INTS, state, 0);
+        for (int group = 0; group < frames; group += NOISE_STREAMS) {
+            x = x.lanewise(VectorOperators.XOR, x.lanewise(VectorOperators.LSHL, 13));
+            x = x.lanewise(VectorOperators.XOR, x.lanewise(VectorOperators.LSHR, 17));
+            x = x.lanewise(VectorOperators.XOR, x.lanewise(VectorOperators.LSHL, 5));
+            FloatVector noise = ((FloatVector) x.lanewise(VectorOperators.LSHR, 8)
+                    .convert(VectorOperators.I2F, 0))
+                    .mul(scale).sub(amplitude);
+            VectorMask<Float> inRange = NOISE_FLOATS.indexInRange(group, frames);
+            noise.intoArray(out, from + group, inRange);
+        }
+        x.intoArray(state, 0);
+    }
+
+    @Override
+    float mix(float[] src, float[] dst, int dstFrom, int frames, float scale) {
+        FloatVector peaks = FloatVector.zero(FLOATS);
+        int bound = FLOATS.loopBound(frames);
+        int k = 0;
+        for (; k < bound; k += LANES) {
+            FloatVector sample = FloatVector.fromArray(FLOATS, src, k).mul(scale);
+            sample.add(FloatVector.fromArray(FLOATS, dst, dstFrom + k)).intoArray(dst, dstFrom + k);
+            peaks = peaks.max(sample.abs());
+        }
+        float peak = peaks.reduceLanes(VectorOperators.MAX);
+        for (; k < frames; k++) {
+            float sample = src[k] * scale;
+            dst[dstFrom + k] += sample;
+            peak = Math.max(peak, Math.abs(sample));
+        }
+        return peak;
+    }
+}
@@ -0,0 +1,131 @@
+// Keeps the set of voices the mixer is playing bounded.
+// When the polyphony limit is reached a new voice steals the oldest or
+// quietest one, and a chord requested again within a short window restarts
+// the voice already playing it instead of stacking a second copy.
+// Voices come from a fixed pool, so starting a sound never allocates.
+// Only the mixer thread calls acquire/remove; the settings may be changed from any thread.
+class VoiceAllocator {
+    public enum StealPolicy { OLDEST, QUIETEST }
+
+    static final int MAX_VOICES = 32;                 // Hard upper bound on polyphony
+    static final int DEFAULT_MAX_POLYPHONY = 8;
+    static final int DEFAULT_COALESCE_WINDOW_MS = 150;
+
+    private final SynthVoice[] active = new SynthVoice[MAX_VOICES];
+    private int activeCount = 0;
+    private final SynthVoice[] free = new SynthVoice[MAX_VOICES];
+    private int freeCount = 0;
+
+    private volatile int maxPolyphony = DEFAULT_MAX_POLYPHONY;
+    private volatile StealPolicy stealPolicy = StealPolicy.OLDEST;
+    private volatile long coalesceWindowFrames = framesForMs(DEFAULT_COALESCE_WINDOW_MS);
+
+    private long stolenCount = 0;
+    private long coalescedCount = 0;
+
+    public VoiceAllocator() {
+        for (int i = 0; i < MAX_VOICES; i++) {
+            free[freeCount++] = new SynthVoice();
+        }
+    }
+
+    private static long framesForMs(int ms) {
+        return (long) (ms / 1000.0 * AudioMixer.SAMPLE_RATE);
+    }
+
+    public void setMaxPolyphony(int voices) {
+        maxPolyphony = Math.max(1, Math.min(MAX_VOICES, voices));
+    }
+
+    public int getMaxPolyphony() {
+        return maxPolyphony;
+    }
+
+    public void setStealPolicy(StealPolicy policy) {
+        if (policy != null) stealPolicy = policy;
+    }
+
+    public StealPolicy getStealPolicy() {
+        return stealPolicy;
+    }
+
+    public void setCoalesceWindowMs(int ms) {
+        coalesceWindowFrames = framesForMs(Math.max(0, ms));
+    }
+
+    public int getActiveCount() {
+        return activeCount;
+    }
+
+    public SynthVoice get(int index) {
+        return active[index];
+    }
+
+    // Removes the voice at index by moving the last voice into its slot and
+    // returns it to the pool. Safe while iterating from the end of the list towards the start.
+    public void remove(int index) {
+        free[freeCount++] = active[index];
+        activeCount--;
+        active[index] = active[activeCount];
+        active[activeCount] = null;
+    }
+
+    // Returns the voice a sound starting at mixer frame nowFrame should play on,
+    // coalescing or stealing as needed. The caller restarts the returned voice.
+    public SynthVoice acquire(int coalesceKey, long nowFrame) {
+        SynthVoice voice = null;
+
+        if (coalesceKey >= 0) {
+            for (int i = 0; i < activeCount; i++) {
+                SynthVoice playing = active[i];
+                if (playing.coalesceKey == coalesceKey
+                        && nowFrame - playing.startFrame < coalesceWindowFrames) {
+                    voice = playing; // Retrigger: restart the playing voice in place
+                    coalescedCount++;
+                    break;
+                }
+            }
+        }
+
+        if (voice == null) {
+            while (activeCount > maxPolyphony) {
+                remove(chooseVictim());
+                stolenCount++;
+            }
+            if (activeCount == maxPolyphony) {
+                voice = active[chooseVictim()]; // Steal: the victim is restarted as the new sound
+                stolenCount++;
+            } else {
+                voice = free[--freeCount];
+                free[freeCount] = null;
+                active[activeCount++] = voice;
+            }
+        }
+
+        voice.coalesceKey = coalesceKey;
+        voice.startFrame = nowFrame;
+        return voice;
+    }
+
+    private int chooseVictim() {
+        int victim = 0;
+        for (int i = 1; i < activeCount; i++) {
+            SynthVoice candidate = active[i];
+            SynthVoice current = active[victim];
+            if (stealPolicy == StealPolicy.QUIETEST) {
+                if (candidate.level < current.level) victim = i;
+            } else if (candidate.startFrame < current.startFrame) {
+                victim = i;
+            }
+        }
+        return victim;
+    }
+
+    public long getStolenCount() {
+        return stolenCount;
+    }
+
+    public long getCoalescedCount() {
+        return coalescedCount;
+    }
+}
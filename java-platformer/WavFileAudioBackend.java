@@ -0,0 +1,120 @@
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+
+import javax.sound.sampled.AudioFormat;
+
+// Writes mixer output to a PCM WAV file instead of a sound card.
+// Nothing blocks on a device, so the mixer renders faster than real time when the
+// caller drives it (startOffline); a mixer thread is held to the sample clock instead.
+// The RIFF sizes are filled in when the file is closed.
+class WavFileAudioBackend implements AudioBackend {
+    private static final int HEADER_BYTES = 44;
+
+    private final String filename;
+    private OutputStream out;
+    private long dataBytes = 0;
+
+    public WavFileAudioBackend(String filename) {
+        this.filename = filename;
+    }
+
+    @Override
+    public boolean open(AudioFormat format, int bufferBytes) {
+        if (format.getEncoding() != AudioFormat.Encoding.PCM_SIGNED || format.isBigEndian()) {
+            System.err.println("WAV output needs little-endian signed PCM, got " + format);
+            return false;
+        }
+        try {
+            out = new BufferedOutputStream(new FileOutputStream(filename), 64 * 1024);
+            int channels = format.getChannels();
+            int sampleRate = (int) format.getSampleRate();
+            int bitsPerSample = format.getSampleSizeInBits();
+            int blockAlign = channels * bitsPerSample / 8;
+
+            byte[] header = new byte[HEADER_BYTES];
+            putAscii(header, 0, "RIFF");
+            putInt(header, 4, 0);               // Patched on close
+            putAscii(header, 8, "WAVE");
+            putAscii(header, 12, "fmt ");
+            putInt(header, 16, 16);
+            putShort(header, 20, 1);            // PCM
+            putShort(header, 22, channels);
+            putInt(header, 24, sampleRate);
+            putInt(header, 28, sampleRate * blockAlign);
+            putShort(header, 32, blockAlign);
+            putShort(header, 34, bitsPerSample);
+            putAscii(header, 36, "data");
+            putInt(header, 40, 0);              // Patched on close
+            out.write(header);
+            dataBytes = 0;
+            return true;
+        } catch (IOException e) {
+            System.err.println("Could not open WAV output " + filename + ": " + e.getMessage());
+            out = null;
+            return false;
+        }
+    }
+
+    @Override
+    public void write(byte[] data, int length) {
+        if (out == null) return;
+        try {
+            out.write(data, 0, length);
+            dataBytes += length;
+        } catch (IOException e) {
+            System.err.println("Error writing WAV output: " + e.getMessage());
+            close();
+        }
+    }
+
+    @Override
+    public int getQueuedBytes() {
+        return 0;
+    }
+
+    @Override
+    public boolean isRealtime() {
+        return false;
+    }
+
+    @Override
+    public void close() {
+        if (out == null) return;
+        try {
+            out.close();
+            try (RandomAccessFile file = new RandomAccessFile(filename, "rw")) {
+                byte[] size = new byte[4];
+                putInt(size, 0, (int) (HEADER_BYTES - 8 + dataBytes));
+                file.seek(4);
+                file.write(size);
+                putInt(size, 0, (int) dataBytes);
+                file.seek(40);
+                file.write(size);
+            }
+        } catch (IOException e) {
+            System.err.println("Error finishing WAV output " + filename + ": " + e.getMessage());
+        }
+        out = null;
+    }
+
+    public long getDataBytes() {
+        return dataBytes;
+    }
+
+    private static void putAscii(byte[] b, int offset, String s) {
+        for (int i = 0; i < 4; i++) b[offset + i] = (byte) s.charAt(i);
+    }
+
+    private static void putShort(byte[] b, int offset, int value) {
+        b[offset] = (byte) value;
+        b[offset + 1] = (byte) (value >> 8);
+    }
+
+    private static void putInt(byte[] b, int offset, int value) {
+        putShort(b, offset, value);
+        putShort(b, offset + 2, value >> 16);
+    }
+}
@@ -0,0 +1,88 @@
+// Band-limited single-cycle waveforms stored as lookup tables, one per octave.
+// Each octave's table only contains the harmonics that stay below Nyquist for
+// the highest frequency in that octave, so lookups never alias.
+class Wavetable {
+    static final int TABLE_SIZE = 2048;                  // Samples per cycle (power of two)
+    private static final double LOWEST_FREQUENCY = 20.0; // Bottom of octave 0
+    private static final int NUM_OCTAVES = 11;           // 20 Hz up to ~41 kHz
+
+    // Shared tables for the waveforms the synth uses
+    static final Wavetable SINE = sawtooth(1);
+    static final Wavetable SAW_5 = sawtooth(5);
+
+    // [octave][TABLE_SIZE + 1]; the extra guard sample repeats sample 0 so
+    // linear interpolation never has to wrap the index
+    private final float[][] tables;
+
+    private Wavetable(float[][] tables) {
+        this.tables = tables;
+    }
+
+    // Builds a sawtooth from the first maxHarmonics partials, each at amplitude 1/k.
+    // Output is normalised by the sum of 1/k so it matches the additive saw in playTone.
+    // sawtooth(1) is a pure sine.
+    static Wavetable sawtooth(int maxHarmonics) {
+        double normalization = 0.0;
+        for (int k = 1; k <= maxHarmonics; k++) {
+            normalization += 1.0 / k;
+        }
+
+        float[][] tables = new float[NUM_OCTAVES][];
+        for (int octave = 0; octave < NUM_OCTAVES; octave++) {
+            int harmonics = harmonicsFor(octave, maxHarmonics);
+
+            // Octaves with the same harmonic count share a table
+            if (octave > 0 && harmonicsFor(octave - 1, maxHarmonics) == harmonics) {
+                tables[octave] = tables[octave - 1];
+                continue;
+            }
+
+            float[] table = new float[TABLE_SIZE + 1];
+            for (int i = 0; i < TABLE_SIZE; i++) {
+                double angle = 2.0 * Math.PI * i / TABLE_SIZE;
+                double value = 0.0;
+                for (int k = 1; k <= harmonics; k++) {
+                    value += (1.0 / k) * Math.sin(k * angle);
+                }
+                table[i] = (float) (value / normalization);
+            }
+            table[TABLE_SIZE] = table[0];
+            tables[octave] = table;
+        }
+        return new Wavetable(tables);
+    }
+
+    // Number of partials that stay below Nyquist for every frequency in the octave
+    private static int harmonicsFor(int octave, int maxHarmonics) {
+        double octaveTopFrequency = LOWEST_FREQUENCY * Math.pow(2, octave + 1);
+        double nyquist = AudioMixer.SAMPLE_RATE / 2.0;
+        int harmonics = (int) Math.min(maxHarmonics, Math.floor(nyquist / octaveTopFrequency));
+        return Math.max(1, harmonics);
+    }
+
+    // Returns the table to use for a fundamental of the given frequency
+    float[] tableFor(double frequency) {
+        int octave = 0;
+        double octaveTop = LOWEST_FREQUENCY * 2;
+        while (frequency > octaveTop && octave < NUM_OCTAVES - 1) {
+            octaveTop *= 2;
+            octave++;
+        }
+        return tables[octave];
+    }
+
+    // Reads a table at phase (in cycles, 0 <= phase < 1) with linear interpolation
+    static float lookup(float[] table, double phase) {
+        double position = phase * TABLE_SIZE;
+        int index = (int) position;
+        float fraction = (float) (position - index);
+        float a = table[index];
+        return a + (table[index + 1] - a) * fraction;
+    }
+
+    // Reads the lowest octave at any phase in cycles; negative or >1 phases wrap.
+    // Handy for one-off sweeps where the phase is computed rather than accumulated.
+    float valueAt(double phase) {
+        return lookup(tables[0], phase - Math.floor(phase));
+    }
+}